@@ -0,0 +1,174 @@
+package com.kerellka.codegen;
+
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.github.javaparser.metamodel.BaseNodeMetaModel;
+import com.github.javaparser.metamodel.JavaParserMetaModel;
+import com.github.javaparser.metamodel.PropertyMetaModel;
+import com.kerellka.core.ComparisonRules;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Writes com.kerellka.core.NodePropertyComparator: one primitive-boolean method per concrete node
+ * type, comparing the properties ComparisonRules keeps in metamodel order, and a switch over kind
+ * ids that dispatches to them. Run it through the generateComparator task after upgrading
+ * javaparser-core, so new syntax gets a comparison method; checkComparator, part of check, fails
+ * while the committed file differs from what this writes.
+ */
+public class ComparatorGenerator {
+
+    private static final String PACKAGE = "com.kerellka.core";
+    private static final String CLASS_NAME = "NodePropertyComparator";
+    private static final String INDENT = "    ";
+
+    public static void main(String[] args) throws IOException {
+        var sourceRoot = Path.of(args.length > 0 ? args[0] : "plagiarism-checker-core/src/main/java");
+        var target = sourceRoot.resolve(PACKAGE.replace('.', '/')).resolve(CLASS_NAME + ".java");
+        Files.createDirectories(target.getParent());
+        Files.writeString(target, generate(), StandardCharsets.UTF_8);
+        System.out.println("written " + target);
+    }
+
+    static String generate() {
+        var kinds = JavaParserMetaModel.getNodeMetaModels().stream()
+                .filter(metaModel -> !metaModel.isAbstract())
+                .sorted(Comparator.comparing(BaseNodeMetaModel::getTypeName))
+                .collect(Collectors.toList());
+        var packages = new TreeSet<String>();
+        kinds.forEach(kind -> packages.add(kind.getPackageName()));
+
+        var out = new StringBuilder();
+        out.append("package ").append(PACKAGE).append(";\n\n");
+        for (var packageName : packages) {
+            out.append("import ").append(packageName).append(".*;\n");
+        }
+        out.append("\nimport java.util.List;\nimport java.util.Objects;\n\n");
+        out.append("// Generated by com.kerellka.codegen.ComparatorGenerator from the JavaParser metamodel, do not edit.\n");
+        out.append("// Regenerate with ./gradlew :plagiarism-checker-core:generateComparator\n");
+        out.append("abstract class ").append(CLASS_NAME).append(" {\n\n");
+
+        out.append(INDENT).append("private static final List<Class<? extends Node>> KINDS = List.of(\n");
+        for (int i = 0; i < kinds.size(); i++) {
+            out.append(INDENT).append(INDENT).append(INDENT).append(kinds.get(i).getTypeName()).append(".class")
+                    .append(i + 1 < kinds.size() ? ",\n" : ");\n\n");
+        }
+        out.append(INDENT).append("private static final ClassValue<Integer> KIND_IDS = new ClassValue<>() {\n");
+        out.append(INDENT).append(INDENT).append("@Override\n");
+        out.append(INDENT).append(INDENT).append("protected Integer computeValue(Class<?> type) {\n");
+        out.append(INDENT).append(INDENT).append(INDENT).append("return KINDS.indexOf(type);\n");
+        out.append(INDENT).append(INDENT).append("}\n");
+        out.append(INDENT).append("};\n\n");
+
+        out.append(INDENT).append("abstract boolean nodeEquals(Node n, Node n2);\n\n");
+        out.append(INDENT).append("abstract boolean nodesEquals(NodeList<? extends Node> n, NodeList<? extends Node> n2);\n\n");
+        out.append(INDENT).append("abstract boolean membersEqual(NodeList<? extends Node> n, NodeList<? extends Node> n2);\n\n");
+        out.append(INDENT).append("// commutative chains with the same operator, see ComparisonRules.chainOperands\n");
+        out.append(INDENT).append("abstract boolean chainEquals(BinaryExpr n, BinaryExpr n2);\n\n");
+        out.append(INDENT).append("// node types this class was generated without\n");
+        out.append(INDENT).append("abstract boolean unknownKindEquals(Node n, Node n2);\n\n");
+
+        out.append(INDENT).append("// compares everything but the comments; n and n2 are of the same class\n");
+        out.append(INDENT).append("final boolean propertiesEqual(Node n, Node n2) {\n");
+        out.append(INDENT).append(INDENT).append("switch (KIND_IDS.get(n.getClass())) {\n");
+        var opaque = new ArrayList<Integer>();
+        for (int i = 0; i < kinds.size(); i++) {
+            var kind = kinds.get(i);
+            if (ComparisonRules.isOpaque(kind.getType())) {
+                opaque.add(i);
+                continue;
+            }
+            var type = kind.getTypeName();
+            out.append(INDENT).append(INDENT).append(INDENT).append("case ").append(i).append(":\n");
+            out.append(INDENT).append(INDENT).append(INDENT).append(INDENT).append("return ").append(methodName(kind))
+                    .append("((").append(type).append(") n, (").append(type).append(") n2);\n");
+        }
+        for (var i : opaque) {
+            out.append(INDENT).append(INDENT).append(INDENT).append("case ").append(i).append(":\n");
+        }
+        out.append(INDENT).append(INDENT).append(INDENT).append(INDENT).append("return true;\n");
+        out.append(INDENT).append(INDENT).append(INDENT).append("default:\n");
+        out.append(INDENT).append(INDENT).append(INDENT).append(INDENT).append("return unknownKindEquals(n, n2);\n");
+        out.append(INDENT).append(INDENT).append("}\n");
+        out.append(INDENT).append("}\n");
+
+        for (var kind : kinds) {
+            if (!ComparisonRules.isOpaque(kind.getType())) {
+                out.append("\n");
+                appendKindMethod(out, kind);
+            }
+        }
+        out.append("\n}\n");
+        return out.toString();
+    }
+
+    private static void appendKindMethod(StringBuilder out, BaseNodeMetaModel kind) {
+        var type = kind.getTypeName();
+        out.append(INDENT).append("private boolean ").append(methodName(kind))
+                .append("(").append(type).append(" n, ").append(type).append(" n2) {\n");
+        var conditions = new ArrayList<String>();
+        var properties = ComparisonRules.comparedProperties(kind.getType());
+        if (kind.getType() == BinaryExpr.class) {
+            // same operator, then commutative chains as operand multisets and everything else in place
+            out.append(INDENT).append(INDENT).append("if (n.getOperator() != n2.getOperator())\n");
+            out.append(INDENT).append(INDENT).append(INDENT).append("return false;\n");
+            out.append(INDENT).append(INDENT).append("if (ComparisonRules.isCommutative(n.getOperator()))\n");
+            out.append(INDENT).append(INDENT).append(INDENT).append("return chainEquals(n, n2);\n");
+            properties = properties.stream()
+                    .filter(property -> !property.getName().equals("operator"))
+                    .collect(Collectors.toList());
+        }
+        for (var property : properties) {
+            conditions.add(condition(property));
+        }
+        out.append(INDENT).append(INDENT).append("return ");
+        if (conditions.isEmpty()) {
+            out.append("true");
+        }
+        for (int i = 0; i < conditions.size(); i++) {
+            if (i > 0) {
+                out.append("\n").append(INDENT).append(INDENT).append(INDENT).append(INDENT).append("&& ");
+            }
+            out.append(conditions.get(i));
+        }
+        out.append(";\n");
+        out.append(INDENT).append("}\n");
+    }
+
+    private static String condition(ComparisonRules.Property property) {
+        var metaModel = property.getMetaModel();
+        var left = value(metaModel, "n");
+        var right = value(metaModel, "n2");
+        if (ComparisonRules.isMemberList(property)) {
+            return "membersEqual(" + left + ", " + right + ")";
+        }
+        if (property.isNodeList()) {
+            return "nodesEquals(" + left + ", " + right + ")";
+        }
+        if (property.isNode()) {
+            return "nodeEquals(" + left + ", " + right + ")";
+        }
+        if (metaModel.getType().isPrimitive() || metaModel.getType().isEnum()) {
+            return left + " == " + right;
+        }
+        return "Objects.equals(" + left + ", " + right + ")";
+    }
+
+    private static String value(PropertyMetaModel metaModel, String node) {
+        var getter = node + "." + metaModel.getGetterMethodName() + "()";
+        return metaModel.isOptional() ? getter + ".orElse(null)" : getter;
+    }
+
+    private static String methodName(BaseNodeMetaModel kind) {
+        var type = kind.getTypeName();
+        return Character.toLowerCase(type.charAt(0)) + type.substring(1) + "Equals";
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.CompilationUnit;
+
+public class ArenaEngine implements SimilarityEngine<AstArena> {
+
+    public static final String NAME = "arena";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public AstArena prepare(CompilationUnit unit) {
+        return AstArena.of(unit);
+    }
+
+    @Override
+    public ComparisonResult score(AstArena left, AstArena right, ComparisonOptions options) {
+        return AstArena.compare(left, right);
+    }
+
+    // every left node is covered by a right node claimed for it alone
+    @Override
+    public long upperBound(AstArena left, AstArena right) {
+        return left.size() == 0 ? 0 : 100L * Math.min(left.size(), right.size()) / left.size();
+    }
+
+}
@@ -0,0 +1,247 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.Node;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * A tree flattened into parallel arrays, holding only what the visitor compares. Nodes are numbered in
+ * preorder over the compared properties, so a subtree is the range [i, i + subtreeSize(i)). Names and
+ * comment contents are gone; subtree hashes are the {@link StructuralHashes} ones, so equal hashes
+ * still mean the visitor would find the subtrees equal.
+ * <p>
+ * Nothing points back into the JavaParser tree, so a whole lab can stay in memory as arenas.
+ */
+public class AstArena {
+
+    public static final int NONE = -1;
+
+    private static final Map<Class<?>, Integer> kindIds = new HashMap<>();
+    private static final List<Class<?>> kindClasses = new ArrayList<>();
+
+    private final int[] kinds;
+    private final int[] firstChildren;
+    private final int[] nextSiblings;
+    private final int[] payloads;
+    private final int[] subtreeSizes;
+    private final long[] hashes;
+    private final long[] payloadValues;
+    // hashes in increasing order and the node each one belongs to, for looking subtrees up by hash
+    private final long[] sortedHashes;
+    private final int[] sortedNodes;
+
+    private AstArena(int[] kinds, int[] firstChildren, int[] nextSiblings, int[] payloads, int[] subtreeSizes,
+                     long[] hashes, long[] payloadValues) {
+        this.kinds = kinds;
+        this.firstChildren = firstChildren;
+        this.nextSiblings = nextSiblings;
+        this.payloads = payloads;
+        this.subtreeSizes = subtreeSizes;
+        this.hashes = hashes;
+        this.payloadValues = payloadValues;
+        this.sortedNodes = IntStream.range(0, hashes.length)
+                .boxed()
+                .sorted(Comparator.<Integer>comparingLong(i -> hashes[i]).thenComparingInt(i -> i))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        this.sortedHashes = new long[hashes.length];
+        for (int i = 0; i < sortedNodes.length; i++) {
+            sortedHashes[i] = hashes[sortedNodes[i]];
+        }
+    }
+
+    public static AstArena of(Node root) {
+        return of(new StructuralHashes(root));
+    }
+
+    public static AstArena of(StructuralHashes structuralHashes) {
+        var ordinals = structuralHashes.getOrdinals();
+        var capacity = ordinals.size();
+        var kinds = new int[capacity];
+        var firstChildren = new int[capacity];
+        var nextSiblings = new int[capacity];
+        var payloads = new int[capacity];
+        var parents = new int[capacity];
+        var hashes = new long[capacity];
+        var payloadIds = new HashMap<Long, Integer>();
+        var payloadValues = new ArrayList<Long>();
+        var lastChildren = new int[capacity];
+        Arrays.fill(firstChildren, NONE);
+        Arrays.fill(nextSiblings, NONE);
+        Arrays.fill(lastChildren, NONE);
+
+        var size = 0;
+        var stack = new ArrayDeque<Node>();
+        var parentStack = new ArrayDeque<Integer>();
+        stack.push(ordinals.nodeAt(0));
+        parentStack.push(NONE);
+        while (!stack.isEmpty()) {
+            var node = stack.pop();
+            var parent = parentStack.pop();
+            var index = size++;
+            kinds[index] = kindId(node.getClass());
+            hashes[index] = structuralHashes.hash(structuralHashes.ordinalOf(node));
+            parents[index] = parent;
+            if (parent != NONE) {
+                if (lastChildren[parent] == NONE) {
+                    firstChildren[parent] = index;
+                } else {
+                    nextSiblings[lastChildren[parent]] = index;
+                }
+                lastChildren[parent] = index;
+            }
+
+            var children = new ArrayList<Node>();
+            var payload = collectChildren(node, children);
+            payloads[index] = payload == null
+                    ? NONE
+                    : payloadIds.computeIfAbsent(payload, value -> {
+                        payloadValues.add(value);
+                        return payloadValues.size() - 1;
+                    });
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+                parentStack.push(index);
+            }
+        }
+
+        var subtreeSizes = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            subtreeSizes[i]++;
+            if (parents[i] != NONE) {
+                subtreeSizes[parents[i]] += subtreeSizes[i];
+            }
+        }
+        return new AstArena(
+                Arrays.copyOf(kinds, size),
+                Arrays.copyOf(firstChildren, size),
+                Arrays.copyOf(nextSiblings, size),
+                Arrays.copyOf(payloads, size),
+                subtreeSizes,
+                Arrays.copyOf(hashes, size),
+                payloadValues.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    // adds the compared child nodes in order and returns the hash of the other compared values, or null if there are none
+    private static Long collectChildren(Node node, List<Node> children) {
+        Long payload = null;
+        for (ComparisonRules.Property property : ComparisonRules.comparedProperties(node)) {
+            var value = property.valueOf(node);
+            if (value == null) {
+                continue;
+            }
+            if (property.isNodeList()) {
+                children.addAll(property.nodeListOf(node));
+            } else if (property.isNode()) {
+                children.add((Node) value);
+            } else {
+                var attribute = StructuralHashes.valueHash(value);
+                payload = payload == null ? attribute : StructuralHashes.combine(payload, attribute);
+            }
+        }
+        return payload;
+    }
+
+    private static synchronized int kindId(Class<?> type) {
+        return kindIds.computeIfAbsent(type, key -> {
+            kindClasses.add(key);
+            return kindClasses.size() - 1;
+        });
+    }
+
+    public static synchronized Class<?> kindClass(int kind) {
+        return kindClasses.get(kind);
+    }
+
+    public int size() {
+        return kinds.length;
+    }
+
+    public int kind(int index) {
+        return kinds[index];
+    }
+
+    public int firstChild(int index) {
+        return firstChildren[index];
+    }
+
+    public int nextSibling(int index) {
+        return nextSiblings[index];
+    }
+
+    // NONE when the node has no compared attributes
+    public long payload(int index) {
+        return payloads[index] == NONE ? NONE : payloadValues[payloads[index]];
+    }
+
+    public boolean hasPayload(int index) {
+        return payloads[index] != NONE;
+    }
+
+    public int subtreeSize(int index) {
+        return subtreeSizes[index];
+    }
+
+    public long hash(int index) {
+        return hashes[index];
+    }
+
+    /**
+     * Share of the left nodes covered by subtrees that also occur in the right arena. Larger subtrees are
+     * tried first, and right subtrees that overlap one already matched are not used again.
+     */
+    public static long countPlagiarismPercentage(AstArena left, AstArena right) {
+        return compare(left, right).getPercentage();
+    }
+
+    // a claimed right subtree is as big as the left one it matched, so covered counts the nodes of both sides
+    public static ComparisonResult compare(AstArena left, AstArena right) {
+        var claimed = new BitSet(right.size());
+        var covered = 0;
+        var index = 0;
+        while (index < left.size()) {
+            if (right.claim(left.hashes[index], claimed)) {
+                covered += left.subtreeSizes[index];
+                index += left.subtreeSizes[index];
+            } else {
+                index++;
+            }
+        }
+        return new ComparisonResult(
+                (long) (100 * ((double) covered / left.size())),
+                (long) (100 * ((double) covered / right.size())),
+                (long) (100 * ((double) 2 * covered / (left.size() + right.size()))),
+                false, 0);
+    }
+
+    private boolean claim(long hash, BitSet claimed) {
+        var position = Arrays.binarySearch(sortedHashes, hash);
+        if (position < 0) {
+            return false;
+        }
+        while (position > 0 && sortedHashes[position - 1] == hash) {
+            position--;
+        }
+        for (; position < sortedHashes.length && sortedHashes[position] == hash; position++) {
+            var node = sortedNodes[position];
+            var end = node + subtreeSizes[node];
+            // claimed subtrees are marked as whole ranges, so a set bit in [node, end) means an overlap
+            // with the node itself, one of its ancestors or one of its descendants
+            var nextClaimed = claimed.nextSetBit(node);
+            if (nextClaimed == -1 || nextClaimed >= end) {
+                claimed.set(node, end);
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
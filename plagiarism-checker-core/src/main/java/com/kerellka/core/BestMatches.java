@@ -0,0 +1,33 @@
+package com.kerellka.core;
+
+import java.util.Map;
+
+/**
+ * The most similar units found by {@link PlagiarismChecker#bestMatches}, best first, with how many of the
+ * candidates had to be scored to be sure of them.
+ */
+public class BestMatches<K> {
+
+    private final Map<K, ComparisonResult> matches;
+    private final int candidateCount;
+    private final int scoredCount;
+
+    public BestMatches(Map<K, ComparisonResult> matches, int candidateCount, int scoredCount) {
+        this.matches = matches;
+        this.candidateCount = candidateCount;
+        this.scoredCount = scoredCount;
+    }
+
+    public Map<K, ComparisonResult> getMatches() {
+        return matches;
+    }
+
+    public int getCandidateCount() {
+        return candidateCount;
+    }
+
+    public int getScoredCount() {
+        return scoredCount;
+    }
+
+}
@@ -0,0 +1,228 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.EnumConstantDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.comments.Comment;
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.github.javaparser.ast.expr.BooleanLiteralExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.LiteralExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.expr.PatternExpr;
+import com.github.javaparser.ast.expr.UnaryExpr;
+import com.github.javaparser.ast.nodeTypes.NodeWithBody;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.ast.stmt.ContinueStmt;
+import com.github.javaparser.ast.stmt.ExpressionStmt;
+import com.github.javaparser.ast.stmt.ForStmt;
+import com.github.javaparser.ast.stmt.LabeledStmt;
+import com.github.javaparser.ast.stmt.Statement;
+import com.github.javaparser.ast.stmt.WhileStmt;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Rewrites a unit into a canonical form once, so that comparisons do not have to re-derive the
+ * equivalences on every pair: comments are dropped, static final fields holding a literal are
+ * inlined where they are used, for loops no continue targets become the init statements followed
+ * by a while loop with the updates at the end of its body, and the operands of commutative operators are put in
+ * the order of their structural hashes. The input unit is left untouched.
+ */
+public class Canonicalizer {
+
+    public static CompilationUnit canonicalize(CompilationUnit unit) {
+        var canonical = unit.clone();
+        stripComments(canonical);
+        inlineConstants(canonical);
+        forToWhile(canonical);
+        orderCommutativeOperands(canonical);
+        return canonical;
+    }
+
+    // the innermost type declaring a node; findAncestor only takes the raw TypeDeclaration class
+    static Optional<TypeDeclaration<?>> enclosingType(Node node) {
+        var parent = node.getParentNode();
+        while (parent.isPresent() && !(parent.get() instanceof TypeDeclaration)) {
+            parent = parent.get().getParentNode();
+        }
+        return parent.map(type -> (TypeDeclaration<?>) type);
+    }
+
+    private static void stripComments(CompilationUnit unit) {
+        for (Comment comment : unit.getAllContainedComments()) {
+            comment.remove();
+        }
+        unit.removeComment();
+    }
+
+    // only names declared exactly once in the unit are inlined, so a local, a parameter of a method, lambda or catch
+    // clause, a pattern variable or an enum constant can never be mistaken for the constant
+    private static void inlineConstants(CompilationUnit unit) {
+        var declarations = new HashMap<String, Integer>();
+        unit.findAll(VariableDeclarator.class).forEach(variable -> declarations.merge(variable.getNameAsString(), 1, Integer::sum));
+        unit.findAll(Parameter.class).forEach(parameter -> declarations.merge(parameter.getNameAsString(), 1, Integer::sum));
+        unit.findAll(PatternExpr.class).forEach(pattern -> declarations.merge(pattern.getNameAsString(), 1, Integer::sum));
+        unit.findAll(EnumConstantDeclaration.class).forEach(constant -> declarations.merge(constant.getNameAsString(), 1, Integer::sum));
+
+        var constants = new HashMap<String, Expression>();
+        var owners = new HashMap<String, String>();
+        var inlined = new ArrayList<FieldDeclaration>();
+        for (FieldDeclaration field : unit.findAll(FieldDeclaration.class)) {
+            if (!field.isStatic() || !field.isFinal() || !field.getVariables().stream().allMatch(Canonicalizer::isLiteralConstant)) {
+                continue;
+            }
+            if (field.getVariables().stream().anyMatch(variable -> declarations.get(variable.getNameAsString()) != 1)) {
+                continue;
+            }
+            for (VariableDeclarator variable : field.getVariables()) {
+                constants.put(variable.getNameAsString(), variable.getInitializer().get());
+                enclosingType(field).ifPresent(owner -> owners.put(variable.getNameAsString(), owner.getNameAsString()));
+            }
+            inlined.add(field);
+        }
+        if (constants.isEmpty()) {
+            return;
+        }
+
+        for (NameExpr name : unit.findAll(NameExpr.class)) {
+            var value = constants.get(name.getNameAsString());
+            if (value != null) {
+                name.replace(value.clone());
+            }
+        }
+        for (FieldAccessExpr access : unit.findAll(FieldAccessExpr.class)) {
+            var value = constants.get(access.getNameAsString());
+            if (value != null && access.getScope().isNameExpr()
+                    && access.getScope().asNameExpr().getNameAsString().equals(owners.get(access.getNameAsString()))) {
+                access.replace(value.clone());
+            }
+        }
+        inlined.forEach(FieldDeclaration::remove);
+    }
+
+    private static boolean isLiteralConstant(VariableDeclarator variable) {
+        var initializer = variable.getInitializer().orElse(null);
+        if (initializer instanceof UnaryExpr && ((UnaryExpr) initializer).getOperator() == UnaryExpr.Operator.MINUS) {
+            initializer = ((UnaryExpr) initializer).getExpression();
+        }
+        return initializer instanceof LiteralExpr;
+    }
+
+    // innermost loops first, so the loops moved into a while body are already rewritten; a loop that is continued
+    // keeps its for form, since a continue would skip updates moved to the end of the body
+    private static void forToWhile(CompilationUnit unit) {
+        var loops = unit.findAll(ForStmt.class);
+        for (int i = loops.size() - 1; i >= 0; i--) {
+            var loop = loops.get(i);
+            if (!loop.getUpdate().isEmpty() && isContinued(loop)) {
+                continue;
+            }
+            var body = loop.getBody() instanceof BlockStmt
+                    ? (BlockStmt) loop.getBody()
+                    : new BlockStmt(new NodeList<>(loop.getBody()));
+            for (Expression update : loop.getUpdate()) {
+                body.addStatement(new ExpressionStmt(update));
+            }
+            var condition = loop.getCompare().orElseGet(() -> new BooleanLiteralExpr(true));
+            var replacement = new ArrayList<Statement>();
+            for (Expression init : loop.getInitialization()) {
+                replacement.add(new ExpressionStmt(init));
+            }
+            replacement.add(new WhileStmt(condition, body));
+            replace(loop, replacement);
+        }
+    }
+
+    // whether a continue in the body targets the loop: a labeled one by its label, an unlabeled one by being
+    // the innermost loop around it
+    private static boolean isContinued(ForStmt loop) {
+        var label = loop.getParentNode()
+                .filter(parent -> parent instanceof LabeledStmt)
+                .map(parent -> ((LabeledStmt) parent).getLabel().asString())
+                .orElse(null);
+        for (ContinueStmt continueStmt : loop.getBody().findAll(ContinueStmt.class)) {
+            if (continueStmt.getLabel().isPresent()
+                    ? continueStmt.getLabel().get().asString().equals(label)
+                    : innermostLoop(continueStmt) == loop) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Node innermostLoop(Node node) {
+        var parent = node.getParentNode();
+        while (parent.isPresent() && !(parent.get() instanceof NodeWithBody)) {
+            parent = parent.get().getParentNode();
+        }
+        return parent.orElse(null);
+    }
+
+    // a statement of a block is replaced in place, anywhere else the statements are wrapped in a block
+    private static void replace(Statement statement, List<Statement> replacement) {
+        if (replacement.size() == 1) {
+            statement.replace(replacement.get(0));
+            return;
+        }
+        var parent = statement.getParentNode().orElse(null);
+        if (parent instanceof BlockStmt) {
+            var statements = ((BlockStmt) parent).getStatements();
+            for (int i = 0; i < statements.size(); i++) {
+                if (statements.get(i) == statement) {
+                    statements.remove(i);
+                    statements.addAll(i, replacement);
+                    return;
+                }
+            }
+        }
+        statement.replace(new BlockStmt(new NodeList<>(replacement)));
+    }
+
+    // each commutative chain is flattened, sorted by the hashes of its operands and rebuilt left-deep; the hashes
+    // treat a chain as the multiset of its operands, so rebuilding one never changes any hash
+    private static void orderCommutativeOperands(CompilationUnit unit) {
+        var hashes = new StructuralHashes(unit);
+        var chains = new ArrayList<BinaryExpr>();
+        for (BinaryExpr expr : unit.findAll(BinaryExpr.class)) {
+            if (ComparisonRules.isCommutative(expr.getOperator()) && !continuesParentChain(expr)) {
+                chains.add(expr);
+            }
+        }
+        for (var chain : chains) {
+            var operands = ComparisonRules.chainOperands(chain);
+            operands.sort(Comparator.comparingLong(operand -> hashes.hash(hashes.ordinalOf(operand))));
+            Expression left = operands.get(0);
+            for (int i = 1; i < operands.size() - 1; i++) {
+                left = new BinaryExpr(left, operands.get(i), chain.getOperator());
+            }
+            chain.setLeft(left);
+            chain.setRight(operands.get(operands.size() - 1));
+            // replacing a side detaches the node that was there, which can be an operand moved elsewhere in the chain
+            Expression link = chain;
+            for (int i = 1; i < operands.size(); i++) {
+                var binaryExpr = (BinaryExpr) link;
+                binaryExpr.getLeft().setParentNode(binaryExpr);
+                binaryExpr.getRight().setParentNode(binaryExpr);
+                link = binaryExpr.getLeft();
+            }
+        }
+    }
+
+    private static boolean continuesParentChain(BinaryExpr expr) {
+        return expr.getParentNode()
+                .filter(parent -> parent instanceof BinaryExpr && ComparisonRules.continuesChain(expr, ((BinaryExpr) parent).getOperator()))
+                .isPresent();
+    }
+
+}
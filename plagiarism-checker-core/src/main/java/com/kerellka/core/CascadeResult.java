@@ -0,0 +1,79 @@
+package com.kerellka.core;
+
+import com.github.javaparser.utils.Pair;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The pairs that passed every stage of a {@link ComparisonCascade}, with their scores from the last stage, and
+ * what each stage did on the way.
+ */
+public class CascadeResult<K> {
+
+    private final Map<Pair<K, K>, ComparisonResult> results;
+    private final List<StageReport> stageReports;
+
+    public CascadeResult(Map<Pair<K, K>, ComparisonResult> results, List<StageReport> stageReports) {
+        this.results = results;
+        this.stageReports = stageReports;
+    }
+
+    public Map<Pair<K, K>, ComparisonResult> getResults() {
+        return results;
+    }
+
+    public List<StageReport> getStageReports() {
+        return stageReports;
+    }
+
+    public static class StageReport {
+
+        private final String engineName;
+        private final long threshold;
+        private final int inputCount;
+        private final int passedCount;
+        private final Duration elapsed;
+
+        public StageReport(String engineName, long threshold, int inputCount, int passedCount, Duration elapsed) {
+            this.engineName = engineName;
+            this.threshold = threshold;
+            this.inputCount = inputCount;
+            this.passedCount = passedCount;
+            this.elapsed = elapsed;
+        }
+
+        public String getEngineName() {
+            return engineName;
+        }
+
+        public long getThreshold() {
+            return threshold;
+        }
+
+        public int getInputCount() {
+            return inputCount;
+        }
+
+        public int getPassedCount() {
+            return passedCount;
+        }
+
+        public int getEliminatedCount() {
+            return inputCount - passedCount;
+        }
+
+        public Duration getElapsed() {
+            return elapsed;
+        }
+
+        @Override
+        public String toString() {
+            return engineName + " >= " + threshold + "%: " + passedCount + " of " + inputCount + " passed, "
+                    + getEliminatedCount() + " eliminated in " + elapsed.toMillis() + " ms";
+        }
+
+    }
+
+}
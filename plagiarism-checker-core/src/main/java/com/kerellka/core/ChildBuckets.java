@@ -0,0 +1,77 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
+import com.kerellka.utils.NodeOrdinals;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Elements of a node list grouped by shape hash. A twin has to have the same shape,
+ * so an element only needs to be tried against its own group.
+ */
+class ChildBuckets {
+
+    private final long[] shapes;
+    private final long[] hashes;
+    private final int[] order;
+
+    private ChildBuckets(long[] shapes, long[] hashes, int[] order) {
+        this.shapes = shapes;
+        this.hashes = hashes;
+        this.order = order;
+    }
+
+    static ChildBuckets of(NodeList<? extends Node> list, StructuralHashes structuralHashes) {
+        var shapes = new long[list.size()];
+        var hashes = new long[list.size()];
+        for (int i = 0; i < list.size(); i++) {
+            var ordinal = structuralHashes.ordinalOf(list.get(i));
+            if (ordinal == NodeOrdinals.UNKNOWN) {
+                return null;
+            }
+            shapes[i] = structuralHashes.shape(ordinal);
+            hashes[i] = structuralHashes.hash(ordinal);
+        }
+        var order = IntStream.range(0, list.size())
+                .boxed()
+                .sorted(Comparator.<Integer>comparingLong(i -> shapes[i]).thenComparingInt(i -> i))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        var sortedShapes = new long[order.length];
+        var sortedHashes = new long[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedShapes[i] = shapes[order[i]];
+            sortedHashes[i] = hashes[order[i]];
+        }
+        return new ChildBuckets(sortedShapes, sortedHashes, order);
+    }
+
+    // first position of the group with the given shape, or -1
+    int groupStart(long shape) {
+        var position = Arrays.binarySearch(shapes, shape);
+        if (position < 0) {
+            return -1;
+        }
+        while (position > 0 && shapes[position - 1] == shape) {
+            position--;
+        }
+        return position;
+    }
+
+    boolean inGroup(int position, long shape) {
+        return position < shapes.length && shapes[position] == shape;
+    }
+
+    long hashAt(int position) {
+        return hashes[position];
+    }
+
+    // index of the element in the original list
+    int indexAt(int position) {
+        return order[position];
+    }
+
+}
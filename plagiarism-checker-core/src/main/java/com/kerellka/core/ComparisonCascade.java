@@ -0,0 +1,110 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.utils.Pair;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs candidate pairs through engines one stage at a time, cheapest first. A pair goes on to the next stage only
+ * when the higher of its two directions reaches the threshold of the stage, so the expensive engines only see the
+ * pairs the cheap ones could not rule out. Each stage prepares only the units that are still part of a pair.
+ */
+public class ComparisonCascade {
+
+    private final List<Stage> stages;
+
+    public ComparisonCascade(List<Stage> stages) {
+        if (stages.isEmpty()) {
+            throw new IllegalArgumentException("A cascade needs at least one stage");
+        }
+        this.stages = List.copyOf(stages);
+    }
+
+    // engine names with the percentage a pair needs to pass, in the order they run: "histogram:80,fingerprint:30,visitor:50"
+    public static ComparisonCascade parse(String specification) {
+        var stages = new ArrayList<Stage>();
+        for (var stage : specification.split(",")) {
+            var parts = stage.trim().split(":");
+            if (parts.length > 2) {
+                throw new IllegalArgumentException("Expected engine:threshold, got " + stage);
+            }
+            var threshold = parts.length == 2 ? Long.parseLong(parts[1].trim()) : 0;
+            stages.add(new Stage(SimilarityEngines.get(parts[0].trim()), threshold));
+        }
+        return new ComparisonCascade(stages);
+    }
+
+    public List<Stage> getStages() {
+        return stages;
+    }
+
+    // units are asked for by key from several threads, and only for keys in pairs that reach a stage
+    public <K> CascadeResult<K> run(Function<K, CompilationUnit> units, List<Pair<K, K>> pairs, ComparisonOptions options) {
+        var reports = new ArrayList<CascadeResult.StageReport>();
+        var survivors = pairs;
+        Map<Pair<K, K>, ComparisonResult> results = Map.of();
+        for (var stage : stages) {
+            var start = System.nanoTime();
+            var inputCount = survivors.size();
+            var stageResults = score(stage.getEngine(), units, survivors, options);
+            var threshold = stage.getThreshold();
+            survivors = survivors.stream()
+                    .filter(pair -> passes(stageResults.get(pair), threshold))
+                    .collect(Collectors.toList());
+            results = stageResults;
+            reports.add(new CascadeResult.StageReport(stage.getEngine().getName(), threshold, inputCount, survivors.size(),
+                    Duration.ofNanos(System.nanoTime() - start)));
+        }
+        var passed = new LinkedHashMap<Pair<K, K>, ComparisonResult>();
+        for (var pair : survivors) {
+            passed.put(pair, results.get(pair));
+        }
+        return new CascadeResult<>(passed, reports);
+    }
+
+    private static boolean passes(ComparisonResult result, long threshold) {
+        return Math.max(result.getLeftCoverage(), result.getRightCoverage()) >= threshold;
+    }
+
+    private static <K, P> Map<Pair<K, K>, ComparisonResult> score(SimilarityEngine<P> engine, Function<K, CompilationUnit> units,
+                                                                   List<Pair<K, K>> pairs, ComparisonOptions options) {
+        var prepared = new ConcurrentHashMap<K, P>();
+        var results = new ConcurrentHashMap<Pair<K, K>, ComparisonResult>();
+        pairs.parallelStream()
+                .forEach(pair -> {
+                    var left = prepared.computeIfAbsent(pair.a, key -> engine.prepare(units.apply(key)));
+                    var right = prepared.computeIfAbsent(pair.b, key -> engine.prepare(units.apply(key)));
+                    results.put(pair, PlagiarismChecker.scoreBothWays(engine, left, right, options));
+                });
+        return results;
+    }
+
+    public static class Stage {
+
+        private final SimilarityEngine<?> engine;
+        private final long threshold;
+
+        public Stage(SimilarityEngine<?> engine, long threshold) {
+            this.engine = engine;
+            this.threshold = threshold;
+        }
+
+        public SimilarityEngine<?> getEngine() {
+            return engine;
+        }
+
+        public long getThreshold() {
+            return threshold;
+        }
+
+    }
+
+}
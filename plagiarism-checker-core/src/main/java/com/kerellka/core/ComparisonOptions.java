@@ -0,0 +1,79 @@
+package com.kerellka.core;
+
+import java.time.Duration;
+import java.time.Instant;
+
+public class ComparisonOptions {
+
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    private DistanceKernel distanceKernel = DistanceKernel.DYNAMIC_PROGRAMMING;
+    private Traversal traversal = Traversal.RECURSIVE;
+    private long nodeVisitBudget = UNLIMITED;
+    private Duration timeLimit;
+    private Instant deadline;
+    private double prefilterThreshold;
+
+    public static ComparisonOptions defaults() {
+        return new ComparisonOptions();
+    }
+
+    public DistanceKernel getDistanceKernel() {
+        return distanceKernel;
+    }
+
+    public ComparisonOptions withDistanceKernel(DistanceKernel distanceKernel) {
+        this.distanceKernel = distanceKernel;
+        return this;
+    }
+
+    public Traversal getTraversal() {
+        return traversal;
+    }
+
+    public ComparisonOptions withTraversal(Traversal traversal) {
+        this.traversal = traversal;
+        return this;
+    }
+
+    public long getNodeVisitBudget() {
+        return nodeVisitBudget;
+    }
+
+    // node pairs one comparison may visit before it stops with a truncated result
+    public ComparisonOptions withNodeVisitBudget(long nodeVisitBudget) {
+        this.nodeVisitBudget = nodeVisitBudget;
+        return this;
+    }
+
+    public Duration getTimeLimit() {
+        return timeLimit;
+    }
+
+    // wall time each comparison may take, counted from its own start
+    public ComparisonOptions withTimeLimit(Duration timeLimit) {
+        this.timeLimit = timeLimit;
+        return this;
+    }
+
+    public Instant getDeadline() {
+        return deadline;
+    }
+
+    // moment after which no comparison goes on, shared by every comparison using these options
+    public ComparisonOptions withDeadline(Instant deadline) {
+        this.deadline = deadline;
+        return this;
+    }
+
+    public double getPrefilterThreshold() {
+        return prefilterThreshold;
+    }
+
+    // fingerprint containment (0..1) a pair needs before compareAll runs the visitor on it, 0 compares everything
+    public ComparisonOptions withPrefilterThreshold(double prefilterThreshold) {
+        this.prefilterThreshold = prefilterThreshold;
+        return this;
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.kerellka.core;
+
+/**
+ * Score of one comparison. The percentage is the share of the left unit that has a twin in the
+ * right one, and the combined score is the share of the nodes of both units that have a twin.
+ * The right coverage is the share of the right unit paired in the same comparison. Engines that
+ * match both sides at once report the percentage of the reverse comparison there, see
+ * {@link SimilarityEngine#isRightCoverageExact}; the visitor and the arena only look for twins of
+ * left nodes, so theirs can be below it, and {@link PlagiarismChecker#scoreBothWays} runs the
+ * reverse comparison for them. A truncated result ran out of its visit budget or time, and
+ * its scores only cover the nodes that were compared before that.
+ */
+public class ComparisonResult {
+
+    private final long percentage;
+    private final long rightCoverage;
+    private final long combinedPercentage;
+    private final boolean truncated;
+    private final long visitedNodes;
+
+    // for engines whose score is already symmetric
+    public ComparisonResult(long percentage, boolean truncated, long visitedNodes) {
+        this(percentage, percentage, percentage, truncated, visitedNodes);
+    }
+
+    public ComparisonResult(long leftCoverage, long rightCoverage, long combinedPercentage, boolean truncated, long visitedNodes) {
+        this.percentage = leftCoverage;
+        this.rightCoverage = rightCoverage;
+        this.combinedPercentage = combinedPercentage;
+        this.truncated = truncated;
+        this.visitedNodes = visitedNodes;
+    }
+
+    public long getPercentage() {
+        return percentage;
+    }
+
+    public long getLeftCoverage() {
+        return percentage;
+    }
+
+    public long getRightCoverage() {
+        return rightCoverage;
+    }
+
+    public long getCombinedPercentage() {
+        return combinedPercentage;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public long getVisitedNodes() {
+        return visitedNodes;
+    }
+
+    @Override
+    public String toString() {
+        return percentage + "%" + (truncated ? " (truncated after " + visitedNodes + " nodes)" : "");
+    }
+
+}
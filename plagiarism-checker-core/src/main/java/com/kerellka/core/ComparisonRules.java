@@ -0,0 +1,169 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.PackageDeclaration;
+import com.github.javaparser.ast.comments.Comment;
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.Name;
+import com.github.javaparser.ast.expr.SimpleName;
+import com.github.javaparser.metamodel.JavaParserMetaModel;
+import com.github.javaparser.metamodel.PropertyMetaModel;
+
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The properties PlagiarismEqualsVisitor actually compares. NodePropertyComparator is generated
+ * from these rules, and code that has to agree with the visitor without going through it (hashing,
+ * fingerprinting, flattening) reads them at runtime.
+ */
+public class ComparisonRules {
+
+    private static final Set<BinaryExpr.Operator> commutativeOperators = Set.of(
+            BinaryExpr.Operator.OR,
+            BinaryExpr.Operator.AND,
+            BinaryExpr.Operator.BINARY_OR,
+            BinaryExpr.Operator.BINARY_AND,
+            BinaryExpr.Operator.XOR,
+            BinaryExpr.Operator.EQUALS,
+            BinaryExpr.Operator.NOT_EQUALS,
+            BinaryExpr.Operator.PLUS,
+            BinaryExpr.Operator.MULTIPLY);
+
+    // comments are compared separately, names are never compared
+    private static final Set<String> ignoredProperties = Set.of("comment", "name");
+
+    // body declarations are paired one-to-one; every other node list only needs a twin for each left element
+    private static final Set<String> memberListProperties = Set.of("members", "anonymousClassBody", "classBody");
+
+    private static final ClassValue<List<Property>> comparedProperties = new ClassValue<>() {
+        @Override
+        protected List<Property> computeValue(Class<?> type) {
+            return collectComparedProperties(type);
+        }
+    };
+
+    public static boolean isCommutative(BinaryExpr.Operator operator) {
+        return commutativeOperators.contains(operator);
+    }
+
+    // a commutative chain such as a && b && c is compared as the multiset of its operands; an operand that is an
+    // uncommented BinaryExpr with the same operator is a link of the chain rather than an operand
+    public static boolean continuesChain(Node operand, BinaryExpr.Operator operator) {
+        return operand instanceof BinaryExpr
+                && ((BinaryExpr) operand).getOperator() == operator
+                && operand.getComment().isEmpty()
+                && operand.getOrphanComments().isEmpty();
+    }
+
+    // operands of the commutative chain rooted at chain, left to right
+    public static List<Expression> chainOperands(BinaryExpr chain) {
+        var operands = new ArrayList<Expression>();
+        var pending = new ArrayDeque<Expression>();
+        pending.push(chain.getRight());
+        pending.push(chain.getLeft());
+        while (!pending.isEmpty()) {
+            var operand = pending.pop();
+            if (continuesChain(operand, chain.getOperator())) {
+                pending.push(((BinaryExpr) operand).getRight());
+                pending.push(((BinaryExpr) operand).getLeft());
+            } else {
+                operands.add(operand);
+            }
+        }
+        return operands;
+    }
+
+    public static List<Property> comparedProperties(Node node) {
+        return comparedProperties(node.getClass());
+    }
+
+    public static List<Property> comparedProperties(Class<? extends Node> type) {
+        return comparedProperties.get(type);
+    }
+
+    public static boolean isMemberList(Property property) {
+        return property.isNodeList() && memberListProperties.contains(property.getName());
+    }
+
+    // nodes whose visit method returns true without looking at any property
+    public static boolean isOpaque(Class<?> type) {
+        return type == Name.class
+                || type == SimpleName.class
+                || type == PackageDeclaration.class
+                || Comment.class.isAssignableFrom(type);
+    }
+
+    private static List<Property> collectComparedProperties(Class<?> type) {
+        var properties = new ArrayList<Property>();
+        if (!Node.class.isAssignableFrom(type) || isOpaque(type)) {
+            return properties;
+        }
+        var metaModel = JavaParserMetaModel.getNodeMetaModel(type);
+        if (metaModel.isEmpty()) {
+            return properties;
+        }
+        for (PropertyMetaModel propertyMetaModel : metaModel.get().getAllPropertyMetaModels()) {
+            if (!ignoredProperties.contains(propertyMetaModel.getName())) {
+                properties.add(new Property(propertyMetaModel));
+            }
+        }
+        return properties;
+    }
+
+    public static class Property {
+
+        private final PropertyMetaModel metaModel;
+        private final Field field;
+
+        private Property(PropertyMetaModel metaModel) {
+            this.metaModel = metaModel;
+            try {
+                this.field = metaModel.getContainingNodeMetaModel().getType().getDeclaredField(metaModel.getName());
+                this.field.setAccessible(true);
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException("no field for property " + metaModel, e);
+            }
+        }
+
+        public String getName() {
+            return metaModel.getName();
+        }
+
+        public PropertyMetaModel getMetaModel() {
+            return metaModel;
+        }
+
+        public boolean isNodeList() {
+            return metaModel.isNodeList();
+        }
+
+        public boolean isNode() {
+            return !metaModel.isNodeList() && metaModel.isNode();
+        }
+
+        public Object valueOf(Node node) {
+            try {
+                return field.get(node);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("cannot read property " + metaModel, e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        public NodeList<? extends Node> nodeListOf(Node node) {
+            return (NodeList<? extends Node>) valueOf(node);
+        }
+
+        public Node nodeOf(Node node) {
+            return (Node) valueOf(node);
+        }
+
+    }
+
+}
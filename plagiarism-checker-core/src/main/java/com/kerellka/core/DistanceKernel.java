@@ -0,0 +1,13 @@
+package com.kerellka.core;
+
+public enum DistanceKernel {
+
+    // banded dynamic programming over nodeEquals, the visitor's own notion of equal statements
+    DYNAMIC_PROGRAMMING,
+
+    // bit-parallel edit distance over statement hashes, an approximation: statements equal for nodeEquals only because
+    // each list element has a twin, such as f(0, 0) and f(0), count as different, so the distance is never below the
+    // DYNAMIC_PROGRAMMING one and fewer bodies become candidates for pairing a method that has no equal
+    BIT_PARALLEL
+
+}
@@ -0,0 +1,86 @@
+package com.kerellka.core;
+
+import java.util.Arrays;
+
+/**
+ * Levenshtein distance between sequences of fingerprints (statement hashes, member hashes).
+ */
+public class EditDistance {
+
+    public static int levenshtein(long[] a, long[] b) {
+        int[] previous = new int[b.length + 1];
+        int[] current = new int[b.length + 1];
+        for (int j = 0; j <= b.length; j++) {
+            current[j] = j;
+        }
+        for (int i = 1; i <= a.length; i++) {
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+            current[0] = i;
+            for (int j = 1; j <= b.length; j++) {
+                int cost = a[i - 1] == b[j - 1] ? 0 : 1;
+                current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+            }
+        }
+        return current[b.length];
+    }
+
+    // Myers' bit-vector algorithm in Hyyrö's formulation for edit distance, a is split into 64-bit blocks
+    public static int bitParallel(long[] a, long[] b) {
+        if (a.length == 0) {
+            return b.length;
+        }
+        if (b.length == 0) {
+            return a.length;
+        }
+
+        var symbols = Arrays.stream(a).sorted().distinct().toArray();
+        var words = (a.length + 63) / 64;
+        var matchMasks = new long[symbols.length * words];
+        for (int i = 0; i < a.length; i++) {
+            var symbol = Arrays.binarySearch(symbols, a[i]);
+            matchMasks[symbol * words + i / 64] |= 1L << (i % 64);
+        }
+
+        var positive = new long[words];
+        var negative = new long[words];
+        Arrays.fill(positive, ~0L);
+        var last = 1L << ((a.length - 1) % 64);
+        var distance = a.length;
+
+        for (long c : b) {
+            var symbol = Arrays.binarySearch(symbols, c);
+            long positiveCarry = 1;
+            long negativeCarry = 0;
+            for (int word = 0; word < words; word++) {
+                long match = symbol < 0 ? 0 : matchMasks[symbol * words + word];
+                long vp = positive[word];
+                long vn = negative[word];
+
+                long x = match | negativeCarry;
+                long d0 = (((x & vp) + vp) ^ vp) | x | vn;
+                long hp = vn | ~(d0 | vp);
+                long hn = d0 & vp;
+
+                long positiveCarryIn = positiveCarry;
+                long negativeCarryIn = negativeCarry;
+                if (word < words - 1) {
+                    positiveCarry = hp >>> 63;
+                    negativeCarry = hn >>> 63;
+                } else {
+                    positiveCarry = (hp & last) != 0 ? 1 : 0;
+                    negativeCarry = (hn & last) != 0 ? 1 : 0;
+                }
+                hp = (hp << 1) | positiveCarryIn;
+                hn = (hn << 1) | negativeCarryIn;
+
+                positive[word] = hn | ~(d0 | hp);
+                negative[word] = hp & d0;
+            }
+            distance += positiveCarry - negativeCarry;
+        }
+        return distance;
+    }
+
+}
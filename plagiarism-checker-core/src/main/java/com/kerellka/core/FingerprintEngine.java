@@ -0,0 +1,41 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.CompilationUnit;
+
+// the containment of the winnowing fingerprints, the prefilter of compareAll as an engine of its own
+public class FingerprintEngine implements SimilarityEngine<long[]> {
+
+    public static final String NAME = "fingerprint";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public long[] prepare(CompilationUnit unit) {
+        return Winnowing.fingerprint(unit);
+    }
+
+    @Override
+    public ComparisonResult score(long[] left, long[] right, ComparisonOptions options) {
+        var leftContainment = Winnowing.containment(left, right);
+        var rightContainment = Winnowing.containment(right, left);
+        var combined = left.length + right.length == 0
+                ? 1
+                : (leftContainment * left.length + rightContainment * right.length) / (left.length + right.length);
+        return new ComparisonResult((long) (100 * leftContainment), (long) (100 * rightContainment), (long) (100 * combined), false, 0);
+    }
+
+    // every common hash is one of the right fingerprint's
+    @Override
+    public long upperBound(long[] left, long[] right) {
+        return left.length == 0 ? 100 : 100L * Math.min(left.length, right.length) / left.length;
+    }
+
+    @Override
+    public boolean isRightCoverageExact() {
+        return true;
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.Node;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Running-Karp-Rabin Greedy String Tiling (Wise) over the normalized token streams of two trees.
+ * Tiles are maximal common substrings of at least MINIMUM_MATCH_LENGTH tokens that do not overlap,
+ * so reordered statements and moved methods are still found. The percentage is the share of the
+ * left tokens covered by tiles, the same direction as the visitor score.
+ */
+public class GreedyStringTiling {
+
+    public static final int MINIMUM_MATCH_LENGTH = 8;
+
+    private static final int INITIAL_SEARCH_LENGTH = 32;
+    private static final long BASE = 0x100000001b3L;
+
+    private final long[] left;
+    private final long[] right;
+    private final boolean[] leftMarked;
+    private final boolean[] rightMarked;
+    private final int minimumMatchLength;
+    private int tiled;
+
+    private GreedyStringTiling(long[] left, long[] right, int minimumMatchLength) {
+        this.left = left;
+        this.right = right;
+        this.leftMarked = new boolean[left.length];
+        this.rightMarked = new boolean[right.length];
+        this.minimumMatchLength = minimumMatchLength;
+    }
+
+    public static long countPlagiarismPercentage(Node left, Node right) {
+        return countPlagiarismPercentage(Winnowing.tokens(left), Winnowing.tokens(right));
+    }
+
+    public static long countPlagiarismPercentage(long[] leftTokens, long[] rightTokens) {
+        return compare(leftTokens, rightTokens).getPercentage();
+    }
+
+    // tiles cover the same number of tokens on both sides, so one run gives both coverages
+    public static ComparisonResult compare(long[] leftTokens, long[] rightTokens) {
+        var tiled = tiledLength(leftTokens, rightTokens, MINIMUM_MATCH_LENGTH);
+        return new ComparisonResult(
+                (long) (100 * ((double) tiled / leftTokens.length)),
+                (long) (100 * ((double) tiled / rightTokens.length)),
+                (long) (100 * ((double) 2 * tiled / (leftTokens.length + rightTokens.length))),
+                false, 0);
+    }
+
+    // number of tokens of a covered by tiles
+    public static int tiledLength(long[] a, long[] b, int minimumMatchLength) {
+        var tiling = new GreedyStringTiling(a, b, minimumMatchLength);
+        tiling.run();
+        return tiling.tiled;
+    }
+
+    private void run() {
+        var searchLength = Math.max(INITIAL_SEARCH_LENGTH, minimumMatchLength);
+        while (true) {
+            var matches = new ArrayList<int[]>();
+            var longest = scanPatterns(searchLength, matches);
+            if (longest > 2 * searchLength) {
+                searchLength = longest;
+                continue;
+            }
+            var marked = markTiles(matches);
+            if (searchLength > 2 * minimumMatchLength) {
+                searchLength /= 2;
+            } else if (searchLength > minimumMatchLength) {
+                searchLength = minimumMatchLength;
+            } else if (!marked) {
+                return;
+            }
+        }
+    }
+
+    // collects maximal matches of at least searchLength unmarked tokens as {leftFrom, rightFrom, length};
+    // returns early with the length of a match that is more than twice the search length
+    private int scanPatterns(int searchLength, List<int[]> matches) {
+        var rightWindows = new HashMap<Long, List<Integer>>();
+        forEachUnmarkedWindow(right, rightMarked, searchLength, (from, hash) ->
+                rightWindows.computeIfAbsent(hash, h -> new ArrayList<>()).add(from));
+        var longest = new int[]{0};
+        forEachUnmarkedWindow(left, leftMarked, searchLength, (leftFrom, hash) -> {
+            if (longest[0] > 2 * searchLength) {
+                return;
+            }
+            for (var rightFrom : rightWindows.getOrDefault(hash, List.of())) {
+                var length = 0;
+                while (leftFrom + length < left.length && rightFrom + length < right.length
+                        && !leftMarked[leftFrom + length] && !rightMarked[rightFrom + length]
+                        && left[leftFrom + length] == right[rightFrom + length]) {
+                    length++;
+                }
+                if (length >= searchLength) {
+                    matches.add(new int[]{leftFrom, rightFrom, length});
+                    longest[0] = Math.max(longest[0], length);
+                }
+            }
+        });
+        return longest[0];
+    }
+
+    private interface WindowConsumer {
+        void accept(int from, long hash);
+    }
+
+    // Karp-Rabin hashes of every window of the given length without marked tokens
+    private static void forEachUnmarkedWindow(long[] tokens, boolean[] marked, int length, WindowConsumer consumer) {
+        var power = 1L;
+        for (int i = 1; i < length; i++) {
+            power *= BASE;
+        }
+        var hash = 0L;
+        var unmarkedRun = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            if (marked[i]) {
+                unmarkedRun = 0;
+                hash = 0;
+                continue;
+            }
+            if (unmarkedRun == length) {
+                hash -= tokens[i - length] * power;
+                unmarkedRun--;
+            }
+            hash = hash * BASE + tokens[i];
+            unmarkedRun++;
+            if (unmarkedRun == length) {
+                consumer.accept(i - length + 1, hash);
+            }
+        }
+    }
+
+    // longest matches first; a match overlapping a tile laid in this pass is left for the next one
+    private boolean markTiles(List<int[]> matches) {
+        matches.sort(Comparator.<int[]>comparingInt(match -> -match[2])
+                .thenComparingInt(match -> match[0])
+                .thenComparingInt(match -> match[1]));
+        var marked = false;
+        for (var match : matches) {
+            if (!isOccluded(match)) {
+                for (int k = 0; k < match[2]; k++) {
+                    leftMarked[match[0] + k] = true;
+                    rightMarked[match[1] + k] = true;
+                }
+                tiled += match[2];
+                marked = true;
+            }
+        }
+        return marked;
+    }
+
+    private boolean isOccluded(int[] match) {
+        for (int k = 0; k < match[2]; k++) {
+            if (leftMarked[match[0] + k] || rightMarked[match[1] + k]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
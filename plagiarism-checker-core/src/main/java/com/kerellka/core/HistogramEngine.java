@@ -0,0 +1,30 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.CompilationUnit;
+
+// the cosine of the kind histograms, a coarse first stage rather than a verdict
+public class HistogramEngine implements SimilarityEngine<double[]> {
+
+    public static final String NAME = "histogram";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public double[] prepare(CompilationUnit unit) {
+        return KindHistogram.of(unit);
+    }
+
+    @Override
+    public ComparisonResult score(double[] left, double[] right, ComparisonOptions options) {
+        return new ComparisonResult((long) (100 * KindHistogram.cosine(left, right)), false, 0);
+    }
+
+    @Override
+    public boolean isRightCoverageExact() {
+        return true;
+    }
+
+}
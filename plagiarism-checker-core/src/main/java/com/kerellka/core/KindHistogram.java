@@ -0,0 +1,117 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.comments.Comment;
+import com.github.javaparser.ast.expr.AssignExpr;
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.github.javaparser.ast.expr.UnaryExpr;
+import com.github.javaparser.metamodel.BaseNodeMetaModel;
+import com.github.javaparser.metamodel.JavaParserMetaModel;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Fixed-length count vectors of a unit: one slot per concrete node class, one per operator of binary, unary
+ * and assignment expressions, and the total node count in the last slot. Comments are left out. Two vectors
+ * are compared in a single pass over primitive arrays, so pairs can be triaged long before their ASTs are read.
+ */
+public class KindHistogram {
+
+    private static final List<Class<? extends Node>> KINDS = JavaParserMetaModel.getNodeMetaModels().stream()
+            .filter(metaModel -> !metaModel.isAbstract())
+            .map(BaseNodeMetaModel::getType)
+            .filter(type -> !Comment.class.isAssignableFrom(type))
+            .sorted(Comparator.comparing(Class::getName))
+            .collect(Collectors.toList());
+
+    private static final int BINARY_OPERATORS = KINDS.size();
+    private static final int UNARY_OPERATORS = BINARY_OPERATORS + BinaryExpr.Operator.values().length;
+    private static final int ASSIGN_OPERATORS = UNARY_OPERATORS + UnaryExpr.Operator.values().length;
+    private static final int TOTAL = ASSIGN_OPERATORS + AssignExpr.Operator.values().length;
+
+    public static final int LENGTH = TOTAL + 1;
+
+    private static final ClassValue<Integer> KIND_SLOTS = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return KINDS.indexOf(type);
+        }
+    };
+
+    public static double[] of(Node root) {
+        var histogram = new double[LENGTH];
+        var stack = new ArrayDeque<Node>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            var node = stack.pop();
+            var slot = KIND_SLOTS.get(node.getClass());
+            if (slot >= 0) {
+                histogram[slot]++;
+            }
+            if (node instanceof BinaryExpr) {
+                histogram[BINARY_OPERATORS + ((BinaryExpr) node).getOperator().ordinal()]++;
+            } else if (node instanceof UnaryExpr) {
+                histogram[UNARY_OPERATORS + ((UnaryExpr) node).getOperator().ordinal()]++;
+            } else if (node instanceof AssignExpr) {
+                histogram[ASSIGN_OPERATORS + ((AssignExpr) node).getOperator().ordinal()]++;
+            }
+            histogram[TOTAL]++;
+            for (var child : node.getChildNodes()) {
+                if (!(child instanceof Comment)) {
+                    stack.push(child);
+                }
+            }
+        }
+        return histogram;
+    }
+
+    public static int size(double[] histogram) {
+        return (int) histogram[TOTAL];
+    }
+
+    // the total slot is left out, it would only add the size ratio again
+    public static double cosine(double[] histogram1, double[] histogram2) {
+        double dot = 0;
+        double norm1 = 0;
+        double norm2 = 0;
+        for (int i = 0; i < TOTAL; i++) {
+            dot += histogram1[i] * histogram2[i];
+            norm1 += histogram1[i] * histogram1[i];
+            norm2 += histogram2[i] * histogram2[i];
+        }
+        return norm1 == 0 || norm2 == 0 ? 0 : dot / Math.sqrt(norm1 * norm2);
+    }
+
+    // 1 minus the L1 distance over the most it can be, so 1 for equal counts and 0 for nothing in common
+    public static double manhattan(double[] histogram1, double[] histogram2) {
+        double distance = 0;
+        double total = 0;
+        for (int i = 0; i < TOTAL; i++) {
+            distance += Math.abs(histogram1[i] - histogram2[i]);
+            total += histogram1[i] + histogram2[i];
+        }
+        return total == 0 ? 0 : 1 - distance / total;
+    }
+
+    // vectors stored with another layout, by an older javaparser for instance, are not comparable and have to be rebuilt
+    public static boolean isCurrent(double[] histogram) {
+        return histogram.length == LENGTH;
+    }
+
+    public static byte[] toBytes(double[] histogram) {
+        var buffer = ByteBuffer.allocate(histogram.length * Double.BYTES);
+        buffer.asDoubleBuffer().put(histogram);
+        return buffer.array();
+    }
+
+    public static double[] fromBytes(byte[] bytes) {
+        var histogram = new double[bytes.length / Double.BYTES];
+        ByteBuffer.wrap(bytes).asDoubleBuffer().get(histogram);
+        return histogram;
+    }
+
+}
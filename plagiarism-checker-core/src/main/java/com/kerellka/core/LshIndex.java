@@ -0,0 +1,77 @@
+package com.kerellka.core;
+
+import com.github.javaparser.utils.Pair;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Banding index over MinHash signatures. Signatures are cut into BANDS bands of ROWS rows, and two
+ * entries become candidates when any band is identical. With 32 bands of 4 rows a pair with
+ * Jaccard similarity s is found with probability 1 - (1 - s^4)^32: about 0.3 at s = 0.3, 0.9 at
+ * s = 0.5 and almost surely above 0.6.
+ */
+public class LshIndex<K> {
+
+    public static final int BANDS = 32;
+    public static final int ROWS = MinHash.SIGNATURE_SIZE / BANDS;
+
+    private final List<K> keys = new ArrayList<>();
+    private final Map<Long, List<Integer>> buckets = new HashMap<>();
+
+    public void add(K key, long[] signature) {
+        var index = keys.size();
+        keys.add(key);
+        for (int band = 0; band < BANDS; band++) {
+            buckets.computeIfAbsent(bandKey(signature, band), bandKey -> new ArrayList<>()).add(index);
+        }
+    }
+
+    // entries sharing a band with the signature, in the order they were added
+    public List<K> candidates(long[] signature) {
+        var found = new TreeSet<Integer>();
+        for (int band = 0; band < BANDS; band++) {
+            found.addAll(buckets.getOrDefault(bandKey(signature, band), List.of()));
+        }
+        var candidates = new ArrayList<K>(found.size());
+        for (var index : found) {
+            candidates.add(keys.get(index));
+        }
+        return candidates;
+    }
+
+    // every pair sharing at least one band, each pair once, ordered by the positions of its entries
+    public List<Pair<K, K>> candidatePairs() {
+        var codes = new HashSet<Long>();
+        for (var bucket : buckets.values()) {
+            for (int i = 0; i < bucket.size(); i++) {
+                for (int j = i + 1; j < bucket.size(); j++) {
+                    codes.add((long) bucket.get(i) << 32 | bucket.get(j));
+                }
+            }
+        }
+        var sorted = codes.stream().mapToLong(Long::longValue).sorted().toArray();
+        var pairs = new ArrayList<Pair<K, K>>(sorted.length);
+        for (var code : sorted) {
+            pairs.add(new Pair<>(keys.get((int) (code >>> 32)), keys.get((int) code)));
+        }
+        return pairs;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    private static long bandKey(long[] signature, int band) {
+        long hash = band;
+        for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+            hash = StructuralHashes.combine(hash, signature[row]);
+        }
+        return hash;
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.kerellka.core;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * One-to-one pairing of left members with right members. Candidates are (row, column, cost)
+ * triples; everything else can not be paired. Small problems are solved exactly with the
+ * Hungarian method, larger ones greedily from the cheapest candidate up. Ties always go to
+ * the lower row and then the lower column, so the same candidates give the same pairs.
+ */
+class MemberAssignment {
+
+    static final int UNASSIGNED = -1;
+
+    private final int rows;
+    private final int columns;
+    private int[] candidateRows = new int[16];
+    private int[] candidateColumns = new int[16];
+    private long[] candidateCosts = new long[16];
+    private int size;
+
+    MemberAssignment(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    void addCandidate(int row, int column, long cost) {
+        if (size == candidateRows.length) {
+            candidateRows = Arrays.copyOf(candidateRows, size * 2);
+            candidateColumns = Arrays.copyOf(candidateColumns, size * 2);
+            candidateCosts = Arrays.copyOf(candidateCosts, size * 2);
+        }
+        candidateRows[size] = row;
+        candidateColumns[size] = column;
+        candidateCosts[size] = cost;
+        size++;
+    }
+
+    // column paired with each row, or UNASSIGNED
+    int[] solve(int solverLimit) {
+        if (size == 0) {
+            var assignment = new int[rows];
+            Arrays.fill(assignment, UNASSIGNED);
+            return assignment;
+        }
+        return rows <= solverLimit && columns <= solverLimit ? hungarian() : greedy();
+    }
+
+    private int[] greedy() {
+        var order = IntStream.range(0, size)
+                .boxed()
+                .sorted(Comparator.<Integer>comparingLong(c -> candidateCosts[c])
+                        .thenComparingInt(c -> candidateRows[c])
+                        .thenComparingInt(c -> candidateColumns[c]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        var assignment = new int[rows];
+        Arrays.fill(assignment, UNASSIGNED);
+        var taken = new boolean[columns];
+        for (var candidate : order) {
+            var row = candidateRows[candidate];
+            var column = candidateColumns[candidate];
+            if (assignment[row] == UNASSIGNED && !taken[column]) {
+                assignment[row] = column;
+                taken[column] = true;
+            }
+        }
+        return assignment;
+    }
+
+    // square Hungarian method with potentials; missing pairs cost more than any set of real pairs,
+    // so the cheapest assignment also pairs as many members as possible
+    private int[] hungarian() {
+        var n = Math.max(rows, columns);
+        var maxCost = 0L;
+        for (int c = 0; c < size; c++) {
+            maxCost = Math.max(maxCost, candidateCosts[c]);
+        }
+        var missing = (maxCost + 1) * n + 1;
+        var cost = new long[n][n];
+        for (var row : cost) {
+            Arrays.fill(row, missing);
+        }
+        var allowed = new boolean[n][n];
+        for (int c = 0; c < size; c++) {
+            var row = candidateRows[c];
+            var column = candidateColumns[c];
+            if (!allowed[row][column] || candidateCosts[c] < cost[row][column]) {
+                cost[row][column] = candidateCosts[c];
+                allowed[row][column] = true;
+            }
+        }
+
+        // 1-based as in the textbook formulation, column 0 is the virtual start
+        var u = new long[n + 1];
+        var v = new long[n + 1];
+        var rowOf = new int[n + 1];
+        var way = new int[n + 1];
+        for (int i = 1; i <= n; i++) {
+            rowOf[0] = i;
+            var column = 0;
+            var minSlack = new long[n + 1];
+            Arrays.fill(minSlack, Long.MAX_VALUE);
+            var used = new boolean[n + 1];
+            do {
+                used[column] = true;
+                var row = rowOf[column];
+                var delta = Long.MAX_VALUE;
+                var next = 0;
+                for (int j = 1; j <= n; j++) {
+                    if (!used[j]) {
+                        var slack = cost[row - 1][j - 1] - u[row] - v[j];
+                        if (slack < minSlack[j]) {
+                            minSlack[j] = slack;
+                            way[j] = column;
+                        }
+                        if (minSlack[j] < delta) {
+                            delta = minSlack[j];
+                            next = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= n; j++) {
+                    if (used[j]) {
+                        u[rowOf[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minSlack[j] -= delta;
+                    }
+                }
+                column = next;
+            } while (rowOf[column] != 0);
+            do {
+                var previous = way[column];
+                rowOf[column] = rowOf[previous];
+                column = previous;
+            } while (column != 0);
+        }
+
+        var assignment = new int[rows];
+        Arrays.fill(assignment, UNASSIGNED);
+        for (int j = 1; j <= n; j++) {
+            var row = rowOf[j] - 1;
+            var column = j - 1;
+            if (row < rows && column < columns && allowed[row][column]) {
+                assignment[row] = column;
+            }
+        }
+        return assignment;
+    }
+
+}
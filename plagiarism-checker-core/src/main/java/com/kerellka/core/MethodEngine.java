@@ -0,0 +1,33 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.CompilationUnit;
+
+import java.util.List;
+
+// the share of method nodes whose body the other unit has too, wherever it is declared: evidence the visitor misses
+// for methods moved between classes, best used as a cascade stage before it
+public class MethodEngine implements SimilarityEngine<List<MethodFingerprint>> {
+
+    public static final String NAME = "methods";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public List<MethodFingerprint> prepare(CompilationUnit unit) {
+        return MethodIndex.fingerprints(unit);
+    }
+
+    @Override
+    public ComparisonResult score(List<MethodFingerprint> left, List<MethodFingerprint> right, ComparisonOptions options) {
+        return MethodIndex.compare(left, right);
+    }
+
+    @Override
+    public boolean isRightCoverageExact() {
+        return true;
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.kerellka.core;
+
+/**
+ * The structural hash of one method or constructor body in the canonical form of its unit, with the size of the
+ * body in nodes and where the method was declared.
+ */
+public class MethodFingerprint {
+
+    private final long bodyHash;
+    private final int size;
+    private final String className;
+    private final String methodName;
+
+    public MethodFingerprint(long bodyHash, int size, String className, String methodName) {
+        this.bodyHash = bodyHash;
+        this.size = size;
+        this.className = className;
+        this.methodName = methodName;
+    }
+
+    public long getBodyHash() {
+        return bodyHash;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    @Override
+    public String toString() {
+        return className + "." + methodName;
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.utils.Pair;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index from method body hashes to the submissions, classes and methods they were found in. The visitor only
+ * pairs members of the same parent, so a method moved to another class or file is lost to it; here it is one
+ * hash lookup. Bodies are hashed in the canonical form of their unit, and bodies smaller than MIN_BODY_SIZE
+ * nodes, accessors and the like, are left out because every submission has them.
+ */
+public class MethodIndex<K> {
+
+    public static final int MIN_BODY_SIZE = 12;
+
+    private final Map<K, List<MethodFingerprint>> fingerprints = new LinkedHashMap<>();
+    private final Map<Long, List<Pair<K, MethodFingerprint>>> bodies = new HashMap<>();
+
+    public static List<MethodFingerprint> fingerprints(CompilationUnit unit) {
+        var canonical = Canonicalizer.canonicalize(unit);
+        var hashes = new StructuralHashes(canonical);
+        var fingerprints = new ArrayList<MethodFingerprint>();
+        for (CallableDeclaration<?> callable : canonical.findAll(CallableDeclaration.class)) {
+            var body = body(callable);
+            if (body == null) {
+                continue;
+            }
+            var ordinal = hashes.ordinalOf(body);
+            var size = hashes.getOrdinals().subtreeSize(ordinal);
+            if (size >= MIN_BODY_SIZE) {
+                var className = Canonicalizer.enclosingType(callable).map(TypeDeclaration::getNameAsString).orElse("");
+                fingerprints.add(new MethodFingerprint(hashes.hash(ordinal), size, className, callable.getNameAsString()));
+            }
+        }
+        return fingerprints;
+    }
+
+    private static BlockStmt body(CallableDeclaration<?> callable) {
+        if (callable instanceof MethodDeclaration) {
+            return ((MethodDeclaration) callable).getBody().orElse(null);
+        }
+        return ((ConstructorDeclaration) callable).getBody();
+    }
+
+    public void add(K key, List<MethodFingerprint> methods) {
+        fingerprints.put(key, methods);
+        for (var method : methods) {
+            bodies.computeIfAbsent(method.getBodyHash(), hash -> new ArrayList<>()).add(new Pair<>(key, method));
+        }
+    }
+
+    // pairs of entries with at least one method body in common, each pair once, in the order the entries were added
+    public List<Pair<K, K>> candidatePairs() {
+        var positions = new HashMap<K, Integer>();
+        var keys = new ArrayList<K>();
+        for (var key : fingerprints.keySet()) {
+            positions.put(key, keys.size());
+            keys.add(key);
+        }
+        var codes = new HashSet<Long>();
+        for (var found : bodies.values()) {
+            for (int i = 0; i < found.size(); i++) {
+                for (int j = i + 1; j < found.size(); j++) {
+                    var first = positions.get(found.get(i).a);
+                    var second = positions.get(found.get(j).a);
+                    if (!first.equals(second)) {
+                        codes.add((long) Math.min(first, second) << 32 | Math.max(first, second));
+                    }
+                }
+            }
+        }
+        var sorted = codes.stream().mapToLong(Long::longValue).sorted().toArray();
+        var pairs = new ArrayList<Pair<K, K>>(sorted.length);
+        for (var code : sorted) {
+            pairs.add(new Pair<>(keys.get((int) (code >>> 32)), keys.get((int) code)));
+        }
+        return pairs;
+    }
+
+    // the indexed methods with the same body as one of the given ones, by entry, wherever they were declared
+    public Map<K, List<Pair<MethodFingerprint, MethodFingerprint>>> sharedMethods(List<MethodFingerprint> methods) {
+        var shared = new LinkedHashMap<K, List<Pair<MethodFingerprint, MethodFingerprint>>>();
+        for (var method : methods) {
+            for (var found : bodies.getOrDefault(method.getBodyHash(), List.of())) {
+                shared.computeIfAbsent(found.a, key -> new ArrayList<>()).add(new Pair<>(method, found.b));
+            }
+        }
+        return shared;
+    }
+
+    public List<MethodFingerprint> get(K key) {
+        return fingerprints.getOrDefault(key, List.of());
+    }
+
+    public int size() {
+        return fingerprints.size();
+    }
+
+    // the share of the method nodes of each side whose body the other side has too, from the hashes alone
+    public static ComparisonResult compare(List<MethodFingerprint> left, List<MethodFingerprint> right) {
+        var leftBodies = new HashSet<Long>();
+        left.forEach(method -> leftBodies.add(method.getBodyHash()));
+        var rightBodies = new HashSet<Long>();
+        right.forEach(method -> rightBodies.add(method.getBodyHash()));
+        long leftShared = 0;
+        long leftTotal = 0;
+        for (var method : left) {
+            leftTotal += method.getSize();
+            if (rightBodies.contains(method.getBodyHash())) {
+                leftShared += method.getSize();
+            }
+        }
+        long rightShared = 0;
+        long rightTotal = 0;
+        for (var method : right) {
+            rightTotal += method.getSize();
+            if (leftBodies.contains(method.getBodyHash())) {
+                rightShared += method.getSize();
+            }
+        }
+        return new ComparisonResult(percent(leftShared, leftTotal), percent(rightShared, rightTotal),
+                percent(leftShared + rightShared, leftTotal + rightTotal), false, 0);
+    }
+
+    private static long percent(long shared, long total) {
+        return total == 0 ? 0 : 100 * shared / total;
+    }
+
+    public static byte[] toBytes(List<MethodFingerprint> methods) {
+        var bytes = new ByteArrayOutputStream();
+        try (var output = new DataOutputStream(bytes)) {
+            output.writeInt(methods.size());
+            for (var method : methods) {
+                output.writeLong(method.getBodyHash());
+                output.writeInt(method.getSize());
+                output.writeUTF(method.getClassName());
+                output.writeUTF(method.getMethodName());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static List<MethodFingerprint> fromBytes(byte[] bytes) {
+        try (var input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            var count = input.readInt();
+            var methods = new ArrayList<MethodFingerprint>(count);
+            for (int i = 0; i < count; i++) {
+                methods.add(new MethodFingerprint(input.readLong(), input.readInt(), input.readUTF(), input.readUTF()));
+            }
+            return methods;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.Node;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * MinHash signatures over the k-gram shingles of the normalized token stream that {@link Winnowing}
+ * produces. The share of equal positions in two signatures estimates the Jaccard similarity of the
+ * shingle sets.
+ */
+public class MinHash {
+
+    public static final int SIGNATURE_SIZE = 128;
+
+    private static final long[] SEEDS = new long[SIGNATURE_SIZE];
+
+    static {
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            SEEDS[i] = StructuralHashes.mix(0x5851f42d4c957f2dL * (i + 1));
+        }
+    }
+
+    public static long[] signature(Node root) {
+        var shingles = Arrays.stream(Winnowing.kGrams(Winnowing.tokens(root))).distinct().toArray();
+        var signature = new long[SIGNATURE_SIZE];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (var shingle : shingles) {
+            for (int i = 0; i < SIGNATURE_SIZE; i++) {
+                signature[i] = Math.min(signature[i], StructuralHashes.mix(shingle ^ SEEDS[i]));
+            }
+        }
+        return signature;
+    }
+
+    public static double similarity(long[] signature1, long[] signature2) {
+        var equal = 0;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            if (signature1[i] == signature2[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIGNATURE_SIZE;
+    }
+
+    public static byte[] toBytes(long[] signature) {
+        var buffer = ByteBuffer.allocate(signature.length * Long.BYTES);
+        buffer.asLongBuffer().put(signature);
+        return buffer.array();
+    }
+
+    public static long[] fromBytes(byte[] bytes) {
+        var signature = new long[bytes.length / Long.BYTES];
+        ByteBuffer.wrap(bytes).asLongBuffer().get(signature);
+        return signature;
+    }
+
+}
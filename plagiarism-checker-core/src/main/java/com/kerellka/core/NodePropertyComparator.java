@@ -0,0 +1,829 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.*;
+import com.github.javaparser.ast.body.*;
+import com.github.javaparser.ast.comments.*;
+import com.github.javaparser.ast.expr.*;
+import com.github.javaparser.ast.modules.*;
+import com.github.javaparser.ast.stmt.*;
+import com.github.javaparser.ast.type.*;
+
+import java.util.List;
+import java.util.Objects;
+
+// Generated by com.kerellka.codegen.ComparatorGenerator from the JavaParser metamodel, do not edit.
+// Regenerate with ./gradlew :plagiarism-checker-core:generateComparator
+abstract class NodePropertyComparator {
+
+    private static final List<Class<? extends Node>> KINDS = List.of(
+            AnnotationDeclaration.class,
+            AnnotationMemberDeclaration.class,
+            ArrayAccessExpr.class,
+            ArrayCreationExpr.class,
+            ArrayCreationLevel.class,
+            ArrayInitializerExpr.class,
+            ArrayType.class,
+            AssertStmt.class,
+            AssignExpr.class,
+            BinaryExpr.class,
+            BlockComment.class,
+            BlockStmt.class,
+            BooleanLiteralExpr.class,
+            BreakStmt.class,
+            CastExpr.class,
+            CatchClause.class,
+            CharLiteralExpr.class,
+            ClassExpr.class,
+            ClassOrInterfaceDeclaration.class,
+            ClassOrInterfaceType.class,
+            CompactConstructorDeclaration.class,
+            CompilationUnit.class,
+            ConditionalExpr.class,
+            ConstructorDeclaration.class,
+            ContinueStmt.class,
+            DoStmt.class,
+            DoubleLiteralExpr.class,
+            EmptyStmt.class,
+            EnclosedExpr.class,
+            EnumConstantDeclaration.class,
+            EnumDeclaration.class,
+            ExplicitConstructorInvocationStmt.class,
+            ExpressionStmt.class,
+            FieldAccessExpr.class,
+            FieldDeclaration.class,
+            ForEachStmt.class,
+            ForStmt.class,
+            IfStmt.class,
+            ImportDeclaration.class,
+            InitializerDeclaration.class,
+            InstanceOfExpr.class,
+            IntegerLiteralExpr.class,
+            IntersectionType.class,
+            JavadocComment.class,
+            LabeledStmt.class,
+            LambdaExpr.class,
+            LineComment.class,
+            LocalClassDeclarationStmt.class,
+            LocalRecordDeclarationStmt.class,
+            LongLiteralExpr.class,
+            MarkerAnnotationExpr.class,
+            MemberValuePair.class,
+            MethodCallExpr.class,
+            MethodDeclaration.class,
+            MethodReferenceExpr.class,
+            Modifier.class,
+            ModuleDeclaration.class,
+            ModuleExportsDirective.class,
+            ModuleOpensDirective.class,
+            ModuleProvidesDirective.class,
+            ModuleRequiresDirective.class,
+            ModuleUsesDirective.class,
+            Name.class,
+            NameExpr.class,
+            NormalAnnotationExpr.class,
+            NullLiteralExpr.class,
+            ObjectCreationExpr.class,
+            PackageDeclaration.class,
+            Parameter.class,
+            PatternExpr.class,
+            PrimitiveType.class,
+            ReceiverParameter.class,
+            RecordDeclaration.class,
+            ReturnStmt.class,
+            SimpleName.class,
+            SingleMemberAnnotationExpr.class,
+            StringLiteralExpr.class,
+            SuperExpr.class,
+            SwitchEntry.class,
+            SwitchExpr.class,
+            SwitchStmt.class,
+            SynchronizedStmt.class,
+            TextBlockLiteralExpr.class,
+            ThisExpr.class,
+            ThrowStmt.class,
+            TryStmt.class,
+            TypeExpr.class,
+            TypeParameter.class,
+            UnaryExpr.class,
+            UnionType.class,
+            UnknownType.class,
+            UnparsableStmt.class,
+            VarType.class,
+            VariableDeclarationExpr.class,
+            VariableDeclarator.class,
+            VoidType.class,
+            WhileStmt.class,
+            WildcardType.class,
+            YieldStmt.class);
+
+    private static final ClassValue<Integer> KIND_IDS = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return KINDS.indexOf(type);
+        }
+    };
+
+    abstract boolean nodeEquals(Node n, Node n2);
+
+    abstract boolean nodesEquals(NodeList<? extends Node> n, NodeList<? extends Node> n2);
+
+    abstract boolean membersEqual(NodeList<? extends Node> n, NodeList<? extends Node> n2);
+
+    // commutative chains with the same operator, see ComparisonRules.chainOperands
+    abstract boolean chainEquals(BinaryExpr n, BinaryExpr n2);
+
+    // node types this class was generated without
+    abstract boolean unknownKindEquals(Node n, Node n2);
+
+    // compares everything but the comments; n and n2 are of the same class
+    final boolean propertiesEqual(Node n, Node n2) {
+        switch (KIND_IDS.get(n.getClass())) {
+            case 0:
+                return annotationDeclarationEquals((AnnotationDeclaration) n, (AnnotationDeclaration) n2);
+            case 1:
+                return annotationMemberDeclarationEquals((AnnotationMemberDeclaration) n, (AnnotationMemberDeclaration) n2);
+            case 2:
+                return arrayAccessExprEquals((ArrayAccessExpr) n, (ArrayAccessExpr) n2);
+            case 3:
+                return arrayCreationExprEquals((ArrayCreationExpr) n, (ArrayCreationExpr) n2);
+            case 4:
+                return arrayCreationLevelEquals((ArrayCreationLevel) n, (ArrayCreationLevel) n2);
+            case 5:
+                return arrayInitializerExprEquals((ArrayInitializerExpr) n, (ArrayInitializerExpr) n2);
+            case 6:
+                return arrayTypeEquals((ArrayType) n, (ArrayType) n2);
+            case 7:
+                return assertStmtEquals((AssertStmt) n, (AssertStmt) n2);
+            case 8:
+                return assignExprEquals((AssignExpr) n, (AssignExpr) n2);
+            case 9:
+                return binaryExprEquals((BinaryExpr) n, (BinaryExpr) n2);
+            case 11:
+                return blockStmtEquals((BlockStmt) n, (BlockStmt) n2);
+            case 12:
+                return booleanLiteralExprEquals((BooleanLiteralExpr) n, (BooleanLiteralExpr) n2);
+            case 13:
+                return breakStmtEquals((BreakStmt) n, (BreakStmt) n2);
+            case 14:
+                return castExprEquals((CastExpr) n, (CastExpr) n2);
+            case 15:
+                return catchClauseEquals((CatchClause) n, (CatchClause) n2);
+            case 16:
+                return charLiteralExprEquals((CharLiteralExpr) n, (CharLiteralExpr) n2);
+            case 17:
+                return classExprEquals((ClassExpr) n, (ClassExpr) n2);
+            case 18:
+                return classOrInterfaceDeclarationEquals((ClassOrInterfaceDeclaration) n, (ClassOrInterfaceDeclaration) n2);
+            case 19:
+                return classOrInterfaceTypeEquals((ClassOrInterfaceType) n, (ClassOrInterfaceType) n2);
+            case 20:
+                return compactConstructorDeclarationEquals((CompactConstructorDeclaration) n, (CompactConstructorDeclaration) n2);
+            case 21:
+                return compilationUnitEquals((CompilationUnit) n, (CompilationUnit) n2);
+            case 22:
+                return conditionalExprEquals((ConditionalExpr) n, (ConditionalExpr) n2);
+            case 23:
+                return constructorDeclarationEquals((ConstructorDeclaration) n, (ConstructorDeclaration) n2);
+            case 24:
+                return continueStmtEquals((ContinueStmt) n, (ContinueStmt) n2);
+            case 25:
+                return doStmtEquals((DoStmt) n, (DoStmt) n2);
+            case 26:
+                return doubleLiteralExprEquals((DoubleLiteralExpr) n, (DoubleLiteralExpr) n2);
+            case 27:
+                return emptyStmtEquals((EmptyStmt) n, (EmptyStmt) n2);
+            case 28:
+                return enclosedExprEquals((EnclosedExpr) n, (EnclosedExpr) n2);
+            case 29:
+                return enumConstantDeclarationEquals((EnumConstantDeclaration) n, (EnumConstantDeclaration) n2);
+            case 30:
+                return enumDeclarationEquals((EnumDeclaration) n, (EnumDeclaration) n2);
+            case 31:
+                return explicitConstructorInvocationStmtEquals((ExplicitConstructorInvocationStmt) n, (ExplicitConstructorInvocationStmt) n2);
+            case 32:
+                return expressionStmtEquals((ExpressionStmt) n, (ExpressionStmt) n2);
+            case 33:
+                return fieldAccessExprEquals((FieldAccessExpr) n, (FieldAccessExpr) n2);
+            case 34:
+                return fieldDeclarationEquals((FieldDeclaration) n, (FieldDeclaration) n2);
+            case 35:
+                return forEachStmtEquals((ForEachStmt) n, (ForEachStmt) n2);
+            case 36:
+                return forStmtEquals((ForStmt) n, (ForStmt) n2);
+            case 37:
+                return ifStmtEquals((IfStmt) n, (IfStmt) n2);
+            case 38:
+                return importDeclarationEquals((ImportDeclaration) n, (ImportDeclaration) n2);
+            case 39:
+                return initializerDeclarationEquals((InitializerDeclaration) n, (InitializerDeclaration) n2);
+            case 40:
+                return instanceOfExprEquals((InstanceOfExpr) n, (InstanceOfExpr) n2);
+            case 41:
+                return integerLiteralExprEquals((IntegerLiteralExpr) n, (IntegerLiteralExpr) n2);
+            case 42:
+                return intersectionTypeEquals((IntersectionType) n, (IntersectionType) n2);
+            case 44:
+                return labeledStmtEquals((LabeledStmt) n, (LabeledStmt) n2);
+            case 45:
+                return lambdaExprEquals((LambdaExpr) n, (LambdaExpr) n2);
+            case 47:
+                return localClassDeclarationStmtEquals((LocalClassDeclarationStmt) n, (LocalClassDeclarationStmt) n2);
+            case 48:
+                return localRecordDeclarationStmtEquals((LocalRecordDeclarationStmt) n, (LocalRecordDeclarationStmt) n2);
+            case 49:
+                return longLiteralExprEquals((LongLiteralExpr) n, (LongLiteralExpr) n2);
+            case 50:
+                return markerAnnotationExprEquals((MarkerAnnotationExpr) n, (MarkerAnnotationExpr) n2);
+            case 51:
+                return memberValuePairEquals((MemberValuePair) n, (MemberValuePair) n2);
+            case 52:
+                return methodCallExprEquals((MethodCallExpr) n, (MethodCallExpr) n2);
+            case 53:
+                return methodDeclarationEquals((MethodDeclaration) n, (MethodDeclaration) n2);
+            case 54:
+                return methodReferenceExprEquals((MethodReferenceExpr) n, (MethodReferenceExpr) n2);
+            case 55:
+                return modifierEquals((Modifier) n, (Modifier) n2);
+            case 56:
+                return moduleDeclarationEquals((ModuleDeclaration) n, (ModuleDeclaration) n2);
+            case 57:
+                return moduleExportsDirectiveEquals((ModuleExportsDirective) n, (ModuleExportsDirective) n2);
+            case 58:
+                return moduleOpensDirectiveEquals((ModuleOpensDirective) n, (ModuleOpensDirective) n2);
+            case 59:
+                return moduleProvidesDirectiveEquals((ModuleProvidesDirective) n, (ModuleProvidesDirective) n2);
+            case 60:
+                return moduleRequiresDirectiveEquals((ModuleRequiresDirective) n, (ModuleRequiresDirective) n2);
+            case 61:
+                return moduleUsesDirectiveEquals((ModuleUsesDirective) n, (ModuleUsesDirective) n2);
+            case 63:
+                return nameExprEquals((NameExpr) n, (NameExpr) n2);
+            case 64:
+                return normalAnnotationExprEquals((NormalAnnotationExpr) n, (NormalAnnotationExpr) n2);
+            case 65:
+                return nullLiteralExprEquals((NullLiteralExpr) n, (NullLiteralExpr) n2);
+            case 66:
+                return objectCreationExprEquals((ObjectCreationExpr) n, (ObjectCreationExpr) n2);
+            case 68:
+                return parameterEquals((Parameter) n, (Parameter) n2);
+            case 69:
+                return patternExprEquals((PatternExpr) n, (PatternExpr) n2);
+            case 70:
+                return primitiveTypeEquals((PrimitiveType) n, (PrimitiveType) n2);
+            case 71:
+                return receiverParameterEquals((ReceiverParameter) n, (ReceiverParameter) n2);
+            case 72:
+                return recordDeclarationEquals((RecordDeclaration) n, (RecordDeclaration) n2);
+            case 73:
+                return returnStmtEquals((ReturnStmt) n, (ReturnStmt) n2);
+            case 75:
+                return singleMemberAnnotationExprEquals((SingleMemberAnnotationExpr) n, (SingleMemberAnnotationExpr) n2);
+            case 76:
+                return stringLiteralExprEquals((StringLiteralExpr) n, (StringLiteralExpr) n2);
+            case 77:
+                return superExprEquals((SuperExpr) n, (SuperExpr) n2);
+            case 78:
+                return switchEntryEquals((SwitchEntry) n, (SwitchEntry) n2);
+            case 79:
+                return switchExprEquals((SwitchExpr) n, (SwitchExpr) n2);
+            case 80:
+                return switchStmtEquals((SwitchStmt) n, (SwitchStmt) n2);
+            case 81:
+                return synchronizedStmtEquals((SynchronizedStmt) n, (SynchronizedStmt) n2);
+            case 82:
+                return textBlockLiteralExprEquals((TextBlockLiteralExpr) n, (TextBlockLiteralExpr) n2);
+            case 83:
+                return thisExprEquals((ThisExpr) n, (ThisExpr) n2);
+            case 84:
+                return throwStmtEquals((ThrowStmt) n, (ThrowStmt) n2);
+            case 85:
+                return tryStmtEquals((TryStmt) n, (TryStmt) n2);
+            case 86:
+                return typeExprEquals((TypeExpr) n, (TypeExpr) n2);
+            case 87:
+                return typeParameterEquals((TypeParameter) n, (TypeParameter) n2);
+            case 88:
+                return unaryExprEquals((UnaryExpr) n, (UnaryExpr) n2);
+            case 89:
+                return unionTypeEquals((UnionType) n, (UnionType) n2);
+            case 90:
+                return unknownTypeEquals((UnknownType) n, (UnknownType) n2);
+            case 91:
+                return unparsableStmtEquals((UnparsableStmt) n, (UnparsableStmt) n2);
+            case 92:
+                return varTypeEquals((VarType) n, (VarType) n2);
+            case 93:
+                return variableDeclarationExprEquals((VariableDeclarationExpr) n, (VariableDeclarationExpr) n2);
+            case 94:
+                return variableDeclaratorEquals((VariableDeclarator) n, (VariableDeclarator) n2);
+            case 95:
+                return voidTypeEquals((VoidType) n, (VoidType) n2);
+            case 96:
+                return whileStmtEquals((WhileStmt) n, (WhileStmt) n2);
+            case 97:
+                return wildcardTypeEquals((WildcardType) n, (WildcardType) n2);
+            case 98:
+                return yieldStmtEquals((YieldStmt) n, (YieldStmt) n2);
+            case 10:
+            case 43:
+            case 46:
+            case 62:
+            case 67:
+            case 74:
+                return true;
+            default:
+                return unknownKindEquals(n, n2);
+        }
+    }
+
+    private boolean annotationDeclarationEquals(AnnotationDeclaration n, AnnotationDeclaration n2) {
+        return membersEqual(n.getMembers(), n2.getMembers())
+                && nodesEquals(n.getModifiers(), n2.getModifiers())
+                && nodesEquals(n.getAnnotations(), n2.getAnnotations());
+    }
+
+    private boolean annotationMemberDeclarationEquals(AnnotationMemberDeclaration n, AnnotationMemberDeclaration n2) {
+        return nodeEquals(n.getDefaultValue().orElse(null), n2.getDefaultValue().orElse(null))
+                && nodesEquals(n.getModifiers(), n2.getModifiers())
+                && nodeEquals(n.getType(), n2.getType())
+                && nodesEquals(n.getAnnotations(), n2.getAnnotations());
+    }
+
+    private boolean arrayAccessExprEquals(ArrayAccessExpr n, ArrayAccessExpr n2) {
+        return nodeEquals(n.getIndex(), n2.getIndex());
+    }
+
+    private boolean arrayCreationExprEquals(ArrayCreationExpr n, ArrayCreationExpr n2) {
+        return nodeEquals(n.getElementType(), n2.getElementType())
+                && nodeEquals(n.getInitializer().orElse(null), n2.getInitializer().orElse(null))
+                && nodesEquals(n.getLevels(), n2.getLevels());
+    }
+
+    private boolean arrayCreationLevelEquals(ArrayCreationLevel n, ArrayCreationLevel n2) {
+        return nodesEquals(n.getAnnotations(), n2.getAnnotations())
+                && nodeEquals(n.getDimension().orElse(null), n2.getDimension().orElse(null));
+    }
+
+    private boolean arrayInitializerExprEquals(ArrayInitializerExpr n, ArrayInitializerExpr n2) {
+        return nodesEquals(n.getValues(), n2.getValues());
+    }
+
+    private boolean arrayTypeEquals(ArrayType n, ArrayType n2) {
+        return nodeEquals(n.getComponentType(), n2.getComponentType())
+                && n.getOrigin() == n2.getOrigin()
+                && nodesEquals(n.getAnnotations(), n2.getAnnotations());
+    }
+
+    private boolean assertStmtEquals(AssertStmt n, AssertStmt n2) {
+        return nodeEquals(n.getCheck(), n2.getCheck())
+                && nodeEquals(n.getMessage().orElse(null), n2.getMessage().orElse(null));
+    }
+
+    private boolean assignExprEquals(AssignExpr n, AssignExpr n2) {
+        return n.getOperator() == n2.getOperator()
+                && nodeEquals(n.getTarget(), n2.getTarget())
+                && nodeEquals(n.getValue(), n2.getValue());
+    }
+
+    private boolean binaryExprEquals(BinaryExpr n, BinaryExpr n2) {
+        if (n.getOperator() != n2.getOperator())
+            return false;
+        if (ComparisonRules.isCommutative(n.getOperator()))
+            return chainEquals(n, n2);
+        return nodeEquals(n.getLeft(), n2.getLeft())
+                && nodeEquals(n.getRight(), n2.getRight());
+    }
+
+    private boolean blockStmtEquals(BlockStmt n, BlockStmt n2) {
+        return nodesEquals(n.getStatements(), n2.getStatements());
+    }
+
+    private boolean booleanLiteralExprEquals(BooleanLiteralExpr n, BooleanLiteralExpr n2) {
+        return n.isValue() == n2.isValue();
+    }
+
+    private boolean breakStmtEquals(BreakStmt n, BreakStmt n2) {
+        return nodeEquals(n.getLabel().orElse(null), n2.getLabel().orElse(null));
+    }
+
+    private boolean castExprEquals(CastExpr n, CastExpr n2) {
+        return nodeEquals(n.getExpression(), n2.getExpression())
+                && nodeEquals(n.getType(), n2.getType());
+    }
+
+    private boolean catchClauseEquals(CatchClause n, CatchClause n2) {
+        return nodeEquals(n.getBody(), n2.getBody())
+                && nodeEquals(n.getParameter(), n2.getParameter());
+    }
+
+    private boolean charLiteralExprEquals(CharLiteralExpr n, CharLiteralExpr n2) {
+        return Objects.equals(n.getValue(), n2.getValue());
+    }
+
+    private boolean classExprEquals(ClassExpr n, ClassExpr n2) {
+        return nodeEquals(n.getType(), n2.getType());
+    }
+
+    private boolean classOrInterfaceDeclarationEquals(ClassOrInterfaceDeclaration n, ClassOrInterfaceDeclaration n2) {
+        return nodesEquals(n.getExtendedTypes(), n2.getExtendedTypes())
+                && nodesEquals(n.getImplementedTypes(), n2.getImplementedTypes())
+                && n.isInterface() == n2.isInterface()
+                && nodesEquals(n.getTypeParameters(), n2.getTypeParameters())
+                && membersEqual(n.getMembers(), n2.getMembers())
+                && nodesEquals(n.getModifiers(), n2.getModifiers())
+                && nodesEquals(n.getAnnotations(), n2.getAnnotations());
+    }
+
+    private boolean classOrInterfaceTypeEquals(ClassOrInterfaceType n, ClassOrInterfaceType n2) {
+        return nodeEquals(n.getScope().orElse(null), n2.getScope().orElse(null))
+                && nodesEquals(n.getTypeArguments().orElse(null), n2.getTypeArguments().orElse(null))
+                && nodesEquals(n.getAnnotations(), n2.getAnnotations());
+    }
+
+    private boolean compactConstructorDeclarationEquals(CompactConstructorDeclaration n, CompactConstructorDeclaration n2) {
+        return nodeEquals(n.getBody(), n2.getBody())
+                && nodesEquals(n.getModifiers(), n2.getModifiers())
+                && nodesEquals(n.getThrownExceptions(), n2.getThrownExceptions())
+                && nodesEquals(n.getTypeParameters(), n2.getTypeParameters())
+                && nodesEquals(n.getAnnotations(), n2.getAnnotations());
+    }
+
+    private boolean compilationUnitEquals(CompilationUnit n, CompilationUnit n2) {
+        return nodesEquals(n.getImports(), n2.getImports())
+                && nodeEquals(n.getModule().orElse(null), n2.getModule().orElse(null))
+                && nodeEquals(n.getPackageDeclaration().orElse(null), n2.getPackageDeclaration().orElse(null))
+                && nodesEquals(n.getTypes(), n2.getTypes());
+    }
+
+    private boolean conditionalExprEquals(ConditionalExpr n, ConditionalExpr n2) {
+        return nodeEquals(n.getCondition(), n2.getCondition())
+                && nodeEquals(n.getElseExpr(), n2.getElseExpr())
+                && nodeEquals(n.getThenExpr(), n2.getThenExpr());
+    }
+
+    private boolean constructorDeclarationEquals(ConstructorDeclaration n, ConstructorDeclaration n2) {
+        return nodeEquals(n.getBody(), n2.getBody())
+                && nodesEquals(n.getModifiers(), n2.getModifiers())
+                && nodesEquals(n.getParameters(), n2.getParameters())
+                && nodeEquals(n.getReceiverParameter().orElse(null), n2.getReceiverParameter().orElse(null))
+                && nodesEquals(n.getThrownExceptions(), n2.getThrownExceptions())
+                && nodesEquals(n.getTypeParameters(), n2.getTypeParameters())
+                && nodesEquals(n.getAnnotations(), n2.getAnnotations());
+    }
+
+    private boolean continueStmtEquals(ContinueStmt n, ContinueStmt n2) {
+        return nodeEquals(n.getLabel().orElse(null), n2.getLabel().orElse(null));
+    }
+
+    private boolean doStmtEquals(DoStmt n, DoStmt n2) {
+        return nodeEquals(n.getBody(), n2.getBody())
+                && nodeEquals(n.getCondition(), n2.getCondition());
+    }
+
+    private boolean doubleLiteralExprEquals(DoubleLiteralExpr n, DoubleLiteralExpr n2) {
+        return Objects.equals(n.getValue(), n2.getValue());
+    }
+
+    private boolean emptyStmtEquals(EmptyStmt n, EmptyStmt n2) {
+        return true;
+    }
+
+    private boolean enclosedExprEquals(EnclosedExpr n, EnclosedExpr n2) {
+        return nodeEquals(n.getInner(), n2.getInner());
+    }
+
+    private boolean enumConstantDeclarationEquals(EnumConstantDeclaration n, EnumConstantDeclaration n2) {
+        return nodesEquals(n.getArguments(), n2.getArguments())
+                && membersEqual(n.getClassBody(), n2.getClassBody())
+                && nodesEquals(n.getAnnotations(), n2.getAnnotations());
+    }
+
+    private boolean enumDeclarationEquals(EnumDeclaration n, EnumDeclaration n2) {
+        return nodesEquals(n.getEntries(), n2.getEntries())
+                && nodesEquals(n.getImplementedTypes(), n2.getImplementedTypes())
+                && membersEqual(n.getMembers(), n2.getMembers())
+                && nodesEquals(n.getModifiers(), n2.getModifiers())
+                && nodesEquals(n.getAnnotations(), n2.getAnnotations());
+    }
+
+    private boolean explicitConstructorInvocationStmtEquals(ExplicitConstructorInvocationStmt n, ExplicitConstructorInvocationStmt n2) {
+        return nodesEquals(n.getArguments(), n2.getArguments())
+                && nodeEquals(n.getExpression().orElse(null), n2.getExpression().orElse(null))
+                && n.isThis() == n2.isThis()
+                && nodesEquals(n.getTypeArguments().orElse(null), n2.getTypeArguments().orElse(null));
+    }
+
+    private boolean expressionStmtEquals(ExpressionStmt n, ExpressionStmt n2) {
+        return nodeEquals(n.getExpression(), n2.getExpression());
+    }
+
+    private boolean fieldAccessExprEquals(FieldAccessExpr n, FieldAccessExpr n2) {
+        return nodeEquals(n.getScope(), n2.getScope())
+                && nodesEquals(n.getTypeArguments().orElse(null), n2.getTypeArguments().orElse(null));
+    }
+
+    private boolean fieldDeclarationEquals(FieldDeclaration n, FieldDeclaration n2) {
+        return nodesEquals(n.getModifiers(), n2.getModifiers())
+                && nodesEquals(n.getVariables(), n2.getVariables())
+                && nodesEquals(n.getAnnotations(), n2.getAnnotations());
+    }
+
+    private boolean forEachStmtEquals(ForEachStmt n, ForEachStmt n2) {
+        return nodeEquals(n.getBody(), n2.getBody())
+                && nodeEquals(n.getIterable(), n2.getIterable())
+                && nodeEquals(n.getVariable(), n2.getVariable());
+    }
+
+    private boolean forStmtEquals(ForStmt n, ForStmt n2) {
+        return nodeEquals(n.getBody(), n2.getBody())
+                && nodeEquals(n.getCompare().orElse(null), n2.getCompare().orElse(null))
+                && nodesEquals(n.getInitialization(), n2.getInitialization())
+                && nodesEquals(n.getUpdate(), n2.getUpdate());
+    }
+
+    private boolean ifStmtEquals(IfStmt n, IfStmt n2) {
+        return nodeEquals(n.getCondition(), n2.getCondition())
+                && nodeEquals(n.getElseStmt().orElse(null), n2.getElseStmt().orElse(null))
+                && nodeEquals(n.getThenStmt(), n2.getThenStmt());
+    }
+
+    private boolean importDeclarationEquals(ImportDeclaration n, ImportDeclaration n2) {
+        return n.isAsterisk() == n2.isAsterisk()
+                && n.isStatic() == n2.isStatic();
+    }
+
+    private boolean initializerDeclarationEquals(InitializerDeclaration n, InitializerDeclaration n2) {
+        return nodeEquals(n.getBody(), n2.getBody())
+                && n.isStatic() == n2.isStatic()
+                && nodesEquals(n.getAnnotations(), n2.getAnnotations());
+    }
+
+    private boolean instanceOfExprEquals(InstanceOfExpr n, InstanceOfExpr n2) {
+        return nodeEquals(n.getExpression(), n2.getExpression())
+                && nodeEquals(n.getPattern().orElse(null), n2.getPattern().orElse(null))
+                && nodeEquals(n.getType(), n2.getType());
+    }
+
+    private boolean integerLiteralExprEquals(IntegerLiteralExpr n, IntegerLiteralExpr n2) {
+        return Objects.equals(n.getValue(), n2.getValue());
+    }
+
+    private boolean intersectionTypeEquals(IntersectionType n, IntersectionType n2) {
+        return nodesEquals(n.getElements(), n2.getElements())
+                && nodesEquals(n.getAnnotations(), n2.getAnnotations());
+    }
+
+    private boolean labeledStmtEquals(LabeledStmt n, LabeledStmt n2) {
+        return nodeEquals(n.getLabel(), n2.getLabel())
+                && nodeEquals(n.getStatement(), n2.getStatement());
+    }
+
+    private boolean lambdaExprEquals(LambdaExpr n, LambdaExpr n2) {
+        return nodeEquals(n.getBody(), n2.getBody())
+                && n.isEnclosingParameters() == n2.isEnclosingParameters()
+                && nodesEquals(n.getParameters(), n2.getParameters());
+    }
+
+    private boolean localClassDeclarationStmtEquals(LocalClassDeclarationStmt n, LocalClassDeclarationStmt n2) {
+        return nodeEquals(n.getClassDeclaration(), n2.getClassDeclaration());
+    }
+
+    private boolean localRecordDeclarationStmtEquals(LocalRecordDeclarationStmt n, LocalRecordDeclarationStmt n2) {
+        return nodeEquals(n.getRecordDeclaration(), n2.getRecordDeclaration());
+    }
+
+    private boolean longLiteralExprEquals(LongLiteralExpr n, LongLiteralExpr n2) {
+        return Objects.equals(n.getValue(), n2.getValue());
+    }
+
+    private boolean markerAnnotationExprEquals(MarkerAnnotationExpr n, MarkerAnnotationExpr n2) {
+        return true;
+    }
+
+    private boolean memberValuePairEquals(MemberValuePair n, MemberValuePair n2) {
+        return nodeEquals(n.getValue(), n2.getValue());
+    }
+
+    private boolean methodCallExprEquals(MethodCallExpr n, MethodCallExpr n2) {
+        return nodesEquals(n.getArguments(), n2.getArguments())
+                && nodeEquals(n.getScope().orElse(null), n2.getScope().orElse(null))
+                && nodesEquals(n.getTypeArguments().orElse(null), n2.getTypeArguments().orElse(null));
+    }
+
+    private boolean methodDeclarationEquals(MethodDeclaration n, MethodDeclaration n2) {
+        return nodeEquals(n.getBody().orElse(null), n2.getBody().orElse(null))
+                && nodeEquals(n.getType(), n2.getType())
+                && nodesEquals(n.getModifiers(), n2.getModifiers())
+                && nodesEquals(n.getParameters(), n2.getParameters())
+                && nodeEquals(n.getReceiverParameter().orElse(null), n2.getReceiverParameter().orElse(null))
+                && nodesEquals(n.getThrownExceptions(), n2.getThrownExceptions())
+                && nodesEquals(n.getTypeParameters(), n2.getTypeParameters())
+                && nodesEquals(n.getAnnotations(), n2.getAnnotations());
+    }
+
+    private boolean methodReferenceExprEquals(MethodReferenceExpr n, MethodReferenceExpr n2) {
+        return Objects.equals(n.getIdentifier(), n2.getIdentifier())
+                && nodeEquals(n.getScope(), n2.getScope())
+                && nodesEquals(n.getTypeArguments().orElse(null), n2.getTypeArguments().orElse(null));
+    }
+
+    private boolean modifierEquals(Modifier n, Modifier n2) {
+        return n.getKeyword() == n2.getKeyword();
+    }
+
+    private boolean moduleDeclarationEquals(ModuleDeclaration n, ModuleDeclaration n2) {
+        return nodesEquals(n.getAnnotations(), n2.getAnnotations())
+                && nodesEquals(n.getDirectives(), n2.getDirectives())
+                && n.isOpen() == n2.isOpen();
+    }
+
+    private boolean moduleExportsDirectiveEquals(ModuleExportsDirective n, ModuleExportsDirective n2) {
+        return nodesEquals(n.getModuleNames(), n2.getModuleNames());
+    }
+
+    private boolean moduleOpensDirectiveEquals(ModuleOpensDirective n, ModuleOpensDirective n2) {
+        return nodesEquals(n.getModuleNames(), n2.getModuleNames());
+    }
+
+    private boolean moduleProvidesDirectiveEquals(ModuleProvidesDirective n, ModuleProvidesDirective n2) {
+        return nodesEquals(n.getWith(), n2.getWith());
+    }
+
+    private boolean moduleRequiresDirectiveEquals(ModuleRequiresDirective n, ModuleRequiresDirective n2) {
+        return nodesEquals(n.getModifiers(), n2.getModifiers());
+    }
+
+    private boolean moduleUsesDirectiveEquals(ModuleUsesDirective n, ModuleUsesDirective n2) {
+        return true;
+    }
+
+    private boolean nameExprEquals(NameExpr n, NameExpr n2) {
+        return true;
+    }
+
+    private boolean normalAnnotationExprEquals(NormalAnnotationExpr n, NormalAnnotationExpr n2) {
+        return nodesEquals(n.getPairs(), n2.getPairs());
+    }
+
+    private boolean nullLiteralExprEquals(NullLiteralExpr n, NullLiteralExpr n2) {
+        return true;
+    }
+
+    private boolean objectCreationExprEquals(ObjectCreationExpr n, ObjectCreationExpr n2) {
+        return membersEqual(n.getAnonymousClassBody().orElse(null), n2.getAnonymousClassBody().orElse(null))
+                && nodesEquals(n.getArguments(), n2.getArguments())
+                && nodeEquals(n.getScope().orElse(null), n2.getScope().orElse(null))
+                && nodeEquals(n.getType(), n2.getType())
+                && nodesEquals(n.getTypeArguments().orElse(null), n2.getTypeArguments().orElse(null));
+    }
+
+    private boolean parameterEquals(Parameter n, Parameter n2) {
+        return nodesEquals(n.getAnnotations(), n2.getAnnotations())
+                && n.isVarArgs() == n2.isVarArgs()
+                && nodesEquals(n.getModifiers(), n2.getModifiers())
+                && nodeEquals(n.getType(), n2.getType())
+                && nodesEquals(n.getVarArgsAnnotations(), n2.getVarArgsAnnotations());
+    }
+
+    private boolean patternExprEquals(PatternExpr n, PatternExpr n2) {
+        return nodeEquals(n.getType(), n2.getType());
+    }
+
+    private boolean primitiveTypeEquals(PrimitiveType n, PrimitiveType n2) {
+        return n.getType() == n2.getType()
+                && nodesEquals(n.getAnnotations(), n2.getAnnotations());
+    }
+
+    private boolean receiverParameterEquals(ReceiverParameter n, ReceiverParameter n2) {
+        return nodesEquals(n.getAnnotations(), n2.getAnnotations())
+                && nodeEquals(n.getType(), n2.getType());
+    }
+
+    private boolean recordDeclarationEquals(RecordDeclaration n, RecordDeclaration n2) {
+        return nodesEquals(n.getImplementedTypes(), n2.getImplementedTypes())
+                && nodesEquals(n.getParameters(), n2.getParameters())
+                && nodeEquals(n.getReceiverParameter().orElse(null), n2.getReceiverParameter().orElse(null))
+                && nodesEquals(n.getTypeParameters(), n2.getTypeParameters())
+                && membersEqual(n.getMembers(), n2.getMembers())
+                && nodesEquals(n.getModifiers(), n2.getModifiers())
+                && nodesEquals(n.getAnnotations(), n2.getAnnotations());
+    }
+
+    private boolean returnStmtEquals(ReturnStmt n, ReturnStmt n2) {
+        return nodeEquals(n.getExpression().orElse(null), n2.getExpression().orElse(null));
+    }
+
+    private boolean singleMemberAnnotationExprEquals(SingleMemberAnnotationExpr n, SingleMemberAnnotationExpr n2) {
+        return nodeEquals(n.getMemberValue(), n2.getMemberValue());
+    }
+
+    private boolean stringLiteralExprEquals(StringLiteralExpr n, StringLiteralExpr n2) {
+        return Objects.equals(n.getValue(), n2.getValue());
+    }
+
+    private boolean superExprEquals(SuperExpr n, SuperExpr n2) {
+        return nodeEquals(n.getTypeName().orElse(null), n2.getTypeName().orElse(null));
+    }
+
+    private boolean switchEntryEquals(SwitchEntry n, SwitchEntry n2) {
+        return nodesEquals(n.getLabels(), n2.getLabels())
+                && nodesEquals(n.getStatements(), n2.getStatements())
+                && n.getType() == n2.getType();
+    }
+
+    private boolean switchExprEquals(SwitchExpr n, SwitchExpr n2) {
+        return nodesEquals(n.getEntries(), n2.getEntries())
+                && nodeEquals(n.getSelector(), n2.getSelector());
+    }
+
+    private boolean switchStmtEquals(SwitchStmt n, SwitchStmt n2) {
+        return nodesEquals(n.getEntries(), n2.getEntries())
+                && nodeEquals(n.getSelector(), n2.getSelector());
+    }
+
+    private boolean synchronizedStmtEquals(SynchronizedStmt n, SynchronizedStmt n2) {
+        return nodeEquals(n.getBody(), n2.getBody())
+                && nodeEquals(n.getExpression(), n2.getExpression());
+    }
+
+    private boolean textBlockLiteralExprEquals(TextBlockLiteralExpr n, TextBlockLiteralExpr n2) {
+        return Objects.equals(n.getValue(), n2.getValue());
+    }
+
+    private boolean thisExprEquals(ThisExpr n, ThisExpr n2) {
+        return nodeEquals(n.getTypeName().orElse(null), n2.getTypeName().orElse(null));
+    }
+
+    private boolean throwStmtEquals(ThrowStmt n, ThrowStmt n2) {
+        return nodeEquals(n.getExpression(), n2.getExpression());
+    }
+
+    private boolean tryStmtEquals(TryStmt n, TryStmt n2) {
+        return nodesEquals(n.getCatchClauses(), n2.getCatchClauses())
+                && nodeEquals(n.getFinallyBlock().orElse(null), n2.getFinallyBlock().orElse(null))
+                && nodesEquals(n.getResources(), n2.getResources())
+                && nodeEquals(n.getTryBlock(), n2.getTryBlock());
+    }
+
+    private boolean typeExprEquals(TypeExpr n, TypeExpr n2) {
+        return nodeEquals(n.getType(), n2.getType());
+    }
+
+    private boolean typeParameterEquals(TypeParameter n, TypeParameter n2) {
+        return nodesEquals(n.getTypeBound(), n2.getTypeBound())
+                && nodesEquals(n.getAnnotations(), n2.getAnnotations());
+    }
+
+    private boolean unaryExprEquals(UnaryExpr n, UnaryExpr n2) {
+        return nodeEquals(n.getExpression(), n2.getExpression())
+                && n.getOperator() == n2.getOperator();
+    }
+
+    private boolean unionTypeEquals(UnionType n, UnionType n2) {
+        return nodesEquals(n.getElements(), n2.getElements())
+                && nodesEquals(n.getAnnotations(), n2.getAnnotations());
+    }
+
+    private boolean unknownTypeEquals(UnknownType n, UnknownType n2) {
+        return nodesEquals(n.getAnnotations(), n2.getAnnotations());
+    }
+
+    private boolean unparsableStmtEquals(UnparsableStmt n, UnparsableStmt n2) {
+        return true;
+    }
+
+    private boolean varTypeEquals(VarType n, VarType n2) {
+        return nodesEquals(n.getAnnotations(), n2.getAnnotations());
+    }
+
+    private boolean variableDeclarationExprEquals(VariableDeclarationExpr n, VariableDeclarationExpr n2) {
+        return nodesEquals(n.getAnnotations(), n2.getAnnotations())
+                && nodesEquals(n.getModifiers(), n2.getModifiers())
+                && nodesEquals(n.getVariables(), n2.getVariables());
+    }
+
+    private boolean variableDeclaratorEquals(VariableDeclarator n, VariableDeclarator n2) {
+        return nodeEquals(n.getInitializer().orElse(null), n2.getInitializer().orElse(null))
+                && nodeEquals(n.getType(), n2.getType());
+    }
+
+    private boolean voidTypeEquals(VoidType n, VoidType n2) {
+        return nodesEquals(n.getAnnotations(), n2.getAnnotations());
+    }
+
+    private boolean whileStmtEquals(WhileStmt n, WhileStmt n2) {
+        return nodeEquals(n.getBody(), n2.getBody())
+                && nodeEquals(n.getCondition(), n2.getCondition());
+    }
+
+    private boolean wildcardTypeEquals(WildcardType n, WildcardType n2) {
+        return nodeEquals(n.getExtendedType().orElse(null), n2.getExtendedType().orElse(null))
+                && nodeEquals(n.getSuperType().orElse(null), n2.getSuperType().orElse(null))
+                && nodesEquals(n.getAnnotations(), n2.getAnnotations());
+    }
+
+    private boolean yieldStmtEquals(YieldStmt n, YieldStmt n2) {
+        return nodeEquals(n.getExpression(), n2.getExpression());
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.kerellka.core;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Whether every left operand of a commutative chain can get a right operand of its own that it equals. Each row
+ * only has the columns of its own shape as candidates, and the matching grows by breadth-first augmenting paths.
+ * Equality is asked for one candidate at a time and only when a path reaches it, so a caller can answer with a
+ * nested comparison, on the call stack or on an explicit one: while {@link #needsEdge} holds, the pending pair
+ * has to be compared and the answer passed to {@link #answer}.
+ */
+class OperandMatching {
+
+    private static final byte UNKNOWN = 0;
+    private static final byte EQUAL = 1;
+    private static final byte NOT_EQUAL = 2;
+
+    private final int[][] candidates;
+    private final byte[][] edges;
+    private final int[] rowOfColumn;
+    private final int[] columnOfRow;
+    private final int[] reachedFrom;
+    // the start row a column was reached from last, so the marks need no clearing between searches
+    private final int[] reachedStamp;
+    private final ArrayDeque<Integer> queue = new ArrayDeque<>();
+    private int start;
+    private int row = MemberAssignment.UNASSIGNED;
+    private int position;
+    private boolean finished;
+    private boolean matched;
+
+    // candidates[row] are the columns the row may equal, in the order they are to be tried
+    OperandMatching(int[][] candidates, int columns) {
+        this.candidates = candidates;
+        this.edges = new byte[candidates.length][];
+        for (int i = 0; i < candidates.length; i++) {
+            edges[i] = new byte[candidates[i].length];
+        }
+        this.rowOfColumn = new int[columns];
+        this.columnOfRow = new int[candidates.length];
+        this.reachedFrom = new int[columns];
+        this.reachedStamp = new int[columns];
+        Arrays.fill(rowOfColumn, MemberAssignment.UNASSIGNED);
+        Arrays.fill(columnOfRow, MemberAssignment.UNASSIGNED);
+        Arrays.fill(reachedStamp, -1);
+        startSearch(0);
+    }
+
+    boolean needsEdge() {
+        while (!finished) {
+            if (row == MemberAssignment.UNASSIGNED) {
+                if (queue.isEmpty()) {
+                    // a row no augmenting path reaches stays unmatched in every maximum matching
+                    return finish(false);
+                }
+                row = queue.poll();
+                position = 0;
+            }
+            if (position == candidates[row].length) {
+                row = MemberAssignment.UNASSIGNED;
+                continue;
+            }
+            var column = candidates[row][position];
+            if (reachedStamp[column] == start) {
+                position++;
+                continue;
+            }
+            var edge = edges[row][position];
+            if (edge == UNKNOWN) {
+                return true;
+            }
+            position++;
+            if (edge == NOT_EQUAL) {
+                continue;
+            }
+            reachedStamp[column] = start;
+            reachedFrom[column] = row;
+            if (rowOfColumn[column] == MemberAssignment.UNASSIGNED) {
+                augment(column);
+                startSearch(start + 1);
+            } else {
+                queue.add(rowOfColumn[column]);
+            }
+        }
+        return false;
+    }
+
+    int pendingRow() {
+        return row;
+    }
+
+    int pendingColumn() {
+        return candidates[row][position];
+    }
+
+    void answer(boolean equal) {
+        edges[row][position] = equal ? EQUAL : NOT_EQUAL;
+    }
+
+    boolean isMatched() {
+        return matched;
+    }
+
+    private void startSearch(int nextStart) {
+        start = nextStart;
+        if (start == candidates.length) {
+            finish(true);
+            return;
+        }
+        queue.clear();
+        queue.add(start);
+        row = MemberAssignment.UNASSIGNED;
+    }
+
+    // flips the path back to the start row; every row on it keeps a column, the start row gains one
+    private void augment(int freeColumn) {
+        for (int column = freeColumn; column != MemberAssignment.UNASSIGNED; ) {
+            var pathRow = reachedFrom[column];
+            var previous = columnOfRow[pathRow];
+            rowOfColumn[column] = pathRow;
+            columnOfRow[pathRow] = column;
+            column = previous;
+        }
+    }
+
+    private boolean finish(boolean matched) {
+        this.finished = true;
+        this.matched = matched;
+        return false;
+    }
+
+}
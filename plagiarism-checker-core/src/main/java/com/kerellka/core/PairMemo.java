@@ -0,0 +1,99 @@
+package com.kerellka.core;
+
+import java.util.Arrays;
+
+/**
+ * Verdicts of nodeEquals for (left ordinal, right ordinal) pairs, kept in open-addressing arrays.
+ * The table grows up to a fixed number of slots and is emptied when that fills up, so one
+ * comparison can never hold more than {@code maxSlots} entries.
+ */
+class PairMemo {
+
+    static final byte UNKNOWN = 0;
+    static final byte EQUAL = 1;
+    static final byte NOT_EQUAL = 2;
+
+    private static final long EMPTY = -1L;
+    private static final int INITIAL_SLOTS = 1 << 10;
+
+    private final int maxSlots;
+    private long[] keys;
+    private byte[] verdicts;
+    private int size;
+
+    PairMemo(int maxSlots) {
+        this.maxSlots = Integer.highestOneBit(Math.max(maxSlots, INITIAL_SLOTS));
+        allocate(INITIAL_SLOTS);
+    }
+
+    byte get(int leftOrdinal, int rightOrdinal) {
+        var key = key(leftOrdinal, rightOrdinal);
+        var mask = keys.length - 1;
+        for (int slot = slot(key, mask); keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return verdicts[slot];
+            }
+        }
+        return UNKNOWN;
+    }
+
+    void put(int leftOrdinal, int rightOrdinal, boolean equal) {
+        if (2 * (size + 1) > keys.length) {
+            if (keys.length < maxSlots) {
+                rehash(keys.length * 2);
+            } else {
+                clear();
+            }
+        }
+        insert(key(leftOrdinal, rightOrdinal), equal ? EQUAL : NOT_EQUAL);
+    }
+
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void insert(long key, byte verdict) {
+        var mask = keys.length - 1;
+        var slot = slot(key, mask);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            size++;
+        }
+        keys[slot] = key;
+        verdicts[slot] = verdict;
+    }
+
+    private void rehash(int slots) {
+        var oldKeys = keys;
+        var oldVerdicts = verdicts;
+        allocate(slots);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                insert(oldKeys[i], oldVerdicts[i]);
+            }
+        }
+    }
+
+    private void allocate(int slots) {
+        keys = new long[slots];
+        verdicts = new byte[slots];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    private static long key(int leftOrdinal, int rightOrdinal) {
+        return ((long) leftOrdinal << 32) | (rightOrdinal & 0xffffffffL);
+    }
+
+    private static int slot(long key, int mask) {
+        return (int) StructuralHashes.mix(key) & mask;
+    }
+
+}
@@ -2,10 +2,152 @@ package com.kerellka.core;
 
 import com.github.javaparser.ast.CompilationUnit;
 
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 public class PlagiarismChecker {
 
     public static long countPlagiarismPercentage(CompilationUnit left, CompilationUnit right) {
         return PlagiarismEqualsVisitor.countPlagiarismPercentage(left, right);
     }
 
+    public static long countPlagiarismPercentage(CompilationUnit left, CompilationUnit right, ComparisonOptions options) {
+        return PlagiarismEqualsVisitor.countPlagiarismPercentage(left, right, options);
+    }
+
+    public static long countPlagiarismPercentageByTiling(CompilationUnit left, CompilationUnit right) {
+        return GreedyStringTiling.countPlagiarismPercentage(left, right);
+    }
+
+    public static long countPlagiarismPercentageByTreeEditDistance(CompilationUnit left, CompilationUnit right) {
+        return countPlagiarismPercentageByTreeEditDistance(left, right, TreeEditDistance.DEFAULT_MAX_NODES);
+    }
+
+    public static long countPlagiarismPercentageByTreeEditDistance(CompilationUnit left, CompilationUnit right, int maxNodes) {
+        return TreeEditDistance.countPlagiarismPercentage(left, right, maxNodes);
+    }
+
+    public static ComparisonResult compare(CompilationUnit left, CompilationUnit right, ComparisonOptions options) {
+        return PlagiarismEqualsVisitor.compare(left, right, options);
+    }
+
+    public static <P> ComparisonResult compare(SimilarityEngine<P> engine, CompilationUnit left, CompilationUnit right, ComparisonOptions options) {
+        return engine.score(engine.prepare(left), engine.prepare(right), options);
+    }
+
+    // both directions of a pair: the right coverage is the percentage of the reverse comparison, and the combined
+    // score the higher of the two. Only engines whose single pass can not give that run the reverse comparison
+    public static <P> ComparisonResult scoreBothWays(SimilarityEngine<P> engine, P left, P right, ComparisonOptions options) {
+        var forward = engine.score(left, right, options);
+        if (engine.isRightCoverageExact()) {
+            return forward;
+        }
+        var reverse = engine.score(right, left, options);
+        return new ComparisonResult(forward.getLeftCoverage(), reverse.getLeftCoverage(),
+                Math.max(forward.getCombinedPercentage(), reverse.getCombinedPercentage()),
+                forward.isTruncated() || reverse.isTruncated(), forward.getVisitedNodes() + reverse.getVisitedNodes());
+    }
+
+    public static <K> Map<K, ComparisonResult> compareAll(CompilationUnit left, Map<K, CompilationUnit> others, ComparisonOptions options) {
+        return compareAll(new VisitorEngine(), left, others, options);
+    }
+
+    // left is prepared once; pairs whose fingerprints fall below the prefilter threshold are left out of the result
+    public static <K, P> Map<K, ComparisonResult> compareAll(SimilarityEngine<P> engine, CompilationUnit left, Map<K, CompilationUnit> others, ComparisonOptions options) {
+        var results = new ConcurrentHashMap<K, ComparisonResult>();
+        var preparedLeft = engine.prepare(left);
+        prefiltered(left, others, options)
+                .forEach(entry -> results.put(entry.getKey(), engine.score(preparedLeft, engine.prepare(entry.getValue()), options)));
+        return results;
+    }
+
+    public static <K> BestMatches<K> bestMatches(CompilationUnit left, Map<K, CompilationUnit> others, int count, ComparisonOptions options) {
+        return bestMatches(new VisitorEngine(), left, others, count, options);
+    }
+
+    // the count highest percentages of left against others. Candidates are scored highest upper bound first, the
+    // first count of them alone to get a floor soon and then in parallel batches, and the search stops at the first
+    // candidate whose bound can not beat the lowest of the matches kept
+    public static <K, P> BestMatches<K> bestMatches(SimilarityEngine<P> engine, CompilationUnit left, Map<K, CompilationUnit> others, int count, ComparisonOptions options) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Expected at least one match to keep, got " + count);
+        }
+        var preparedLeft = engine.prepare(left);
+        var candidates = prefiltered(left, others, options)
+                .map(entry -> {
+                    var prepared = engine.prepare(entry.getValue());
+                    return new Candidate<>(entry.getKey(), prepared, engine.upperBound(preparedLeft, prepared));
+                })
+                .sorted(Comparator.comparingLong((Candidate<K, P> candidate) -> candidate.upperBound).reversed())
+                .collect(Collectors.toList());
+
+        var best = new PriorityQueue<Map.Entry<K, ComparisonResult>>(Comparator.comparingLong(entry -> entry.getValue().getPercentage()));
+        var batchSize = ForkJoinPool.getCommonPoolParallelism();
+        var scored = 0;
+        while (scored < candidates.size()) {
+            var floor = best.size() < count ? -1 : best.peek().getValue().getPercentage();
+            var limit = best.size() < count ? count - best.size() : batchSize;
+            var batchEnd = scored;
+            while (batchEnd < candidates.size() && batchEnd - scored < limit && candidates.get(batchEnd).upperBound > floor) {
+                batchEnd++;
+            }
+            if (batchEnd == scored) {
+                break;
+            }
+            candidates.subList(scored, batchEnd)
+                    .parallelStream()
+                    .map(candidate -> Map.entry(candidate.key, engine.score(preparedLeft, candidate.prepared, options)))
+                    .collect(Collectors.toList())
+                    .forEach(entry -> {
+                        best.add(entry);
+                        if (best.size() > count) {
+                            best.poll();
+                        }
+                    });
+            scored = batchEnd;
+        }
+
+        var matches = new LinkedHashMap<K, ComparisonResult>();
+        best.stream()
+                .sorted(best.comparator().reversed())
+                .forEachOrdered(entry -> matches.put(entry.getKey(), entry.getValue()));
+        return new BestMatches<>(matches, candidates.size(), scored);
+    }
+
+    private static <K> Stream<Map.Entry<K, CompilationUnit>> prefiltered(CompilationUnit left, Map<K, CompilationUnit> others, ComparisonOptions options) {
+        var leftFingerprint = options.getPrefilterThreshold() > 0 ? Winnowing.fingerprint(left) : null;
+        return others.entrySet()
+                .parallelStream()
+                .filter(entry -> leftFingerprint == null
+                        || Winnowing.containment(leftFingerprint, Winnowing.fingerprint(entry.getValue())) >= options.getPrefilterThreshold());
+    }
+
+    private static class Candidate<K, P> {
+
+        private final K key;
+        private final P prepared;
+        private final long upperBound;
+
+        Candidate(K key, P prepared, long upperBound) {
+            this.key = key;
+            this.prepared = prepared;
+            this.upperBound = upperBound;
+        }
+
+    }
+
+    public static <K, P> Map<K, P> prepareAll(SimilarityEngine<P> engine, Map<K, CompilationUnit> units) {
+        var prepared = new ConcurrentHashMap<K, P>();
+        units.entrySet()
+                .parallelStream()
+                .forEach(entry -> prepared.put(entry.getKey(), engine.prepare(entry.getValue())));
+        return prepared;
+    }
+
 }
@@ -1,48 +1,139 @@
 package com.kerellka.core;
 
-import com.github.javaparser.ast.*;
-import com.github.javaparser.ast.body.*;
-import com.github.javaparser.ast.comments.BlockComment;
-import com.github.javaparser.ast.comments.JavadocComment;
-import com.github.javaparser.ast.comments.LineComment;
-import com.github.javaparser.ast.expr.*;
-import com.github.javaparser.ast.modules.*;
-import com.github.javaparser.ast.stmt.*;
-import com.github.javaparser.ast.type.*;
-import com.github.javaparser.ast.visitor.GenericVisitor;
-import com.github.javaparser.ast.visitor.Visitable;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.ast.stmt.Statement;
+import com.kerellka.utils.NodeOrdinals;
 import com.kerellka.utils.PlagiarismStats;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.stream.IntStream;
+
+public class PlagiarismEqualsVisitor extends NodePropertyComparator {
+
+    private static final int LINEAR_SCAN_LIMIT = 8;
+    private static final int ALIGNMENT_MAX_EDITS = 64;
+    private static final int ASSIGNMENT_SOLVER_LIMIT = 64;
+    private static final int MAX_MEMBER_CANDIDATES = 4;
+    // body distances computed per left method, which keeps huge classes bounded
+    private static final int MAX_DISTANCE_EVALUATIONS = 128;
+    private static final NodeList<Statement> EMPTY_BODY = new NodeList<>();
+    private static final int MEMO_MAX_SLOTS = 1 << 20;
+    // smaller subtrees are cheaper to compare again than to look up
+    private static final int MEMO_MIN_SUBTREE_SIZE = 8;
+    private static final int DEADLINE_CHECK_INTERVAL = 1 << 10;
+
+    private final PlagiarismStats stats;
+    private final PlagiarismStats rightStats;
+    private final StructuralHashes leftHashes;
+    private final StructuralHashes rightHashes;
+    private final ComparisonOptions options;
+    private final long deadlineNanos;
+    private long visitedNodes;
+    private final Map<NodeList<?>, ChildBuckets> childBuckets = new IdentityHashMap<>();
+    // right subtrees addRightTwins has already recorded, which the same twins would only record again
+    private final BitSet recordedRightSubtrees = new BitSet();
+    private final PairMemo memo = new PairMemo(MEMO_MAX_SLOTS);
+    private final Map<List<?>, long[]> leftFingerprints = new IdentityHashMap<>();
+    private final Map<List<?>, long[]> rightFingerprints = new IdentityHashMap<>();
+    private final Map<List<?>, long[]> leftShapes = new IdentityHashMap<>();
+    private final Map<List<?>, long[]> rightShapes = new IdentityHashMap<>();
 
-public class PlagiarismEqualsVisitor implements GenericVisitor<Boolean, Visitable> {
+    public static boolean equals(final Node n, final Node n2) {
+        var leftHashes = new StructuralHashes(n);
+        var rightHashes = new StructuralHashes(n2);
+        return new PlagiarismEqualsVisitor(new PlagiarismStats(leftHashes.getOrdinals()), new PlagiarismStats(rightHashes.getOrdinals()),
+                leftHashes, rightHashes, ComparisonOptions.defaults())
+                .nodeEquals(n, n2);
+    }
 
-    private static final PlagiarismStats stats = PlagiarismStats.getInstance();
-    private static final PlagiarismEqualsVisitor SINGLETON = new PlagiarismEqualsVisitor();
+    public static long countPlagiarismPercentage(final Node n, final Node n2) {
+        return countPlagiarismPercentage(n, n2, ComparisonOptions.defaults());
+    }
 
-    private List<BinaryExpr.Operator> commutativeOperators = List.of(
-            BinaryExpr.Operator.OR,
-            BinaryExpr.Operator.AND,
-            BinaryExpr.Operator.BINARY_OR,
-            BinaryExpr.Operator.BINARY_AND,
-            BinaryExpr.Operator.XOR,
-            BinaryExpr.Operator.EQUALS,
-            BinaryExpr.Operator.NOT_EQUALS,
-            BinaryExpr.Operator.PLUS,
-            BinaryExpr.Operator.MULTIPLY);
+    public static long countPlagiarismPercentage(final Node n, final Node n2, final ComparisonOptions options) {
+        return compare(n, n2, options).getPercentage();
+    }
 
+    public static ComparisonResult compare(final Node n, final Node n2, final ComparisonOptions options) {
+        return compare(new StructuralHashes(n), new StructuralHashes(n2), options);
+    }
 
-    public static boolean equals(final Node n, final Node n2) {
-        return SINGLETON.nodeEquals(n, n2);
+    // hashes are only read, so one unit's hashes can be reused for any number of comparisons.
+    // Every right element a left element is paired with is recorded too, so the one walk scores both directions
+    public static ComparisonResult compare(final StructuralHashes leftHashes, final StructuralHashes rightHashes, final ComparisonOptions options) {
+        var stats = new PlagiarismStats(leftHashes.getOrdinals());
+        var rightStats = new PlagiarismStats(rightHashes.getOrdinals());
+        var visitor = new PlagiarismEqualsVisitor(stats, rightStats, leftHashes, rightHashes, options);
+        var truncated = false;
+        try {
+            visitor.nodeEquals(leftHashes.getOrdinals().nodeAt(0), rightHashes.getOrdinals().nodeAt(0));
+        } catch (BudgetExhaustedException e) {
+            truncated = true;
+        }
+        return new ComparisonResult(stats.countPlagiarismPercent(), rightStats.countPlagiarismPercent(),
+                PlagiarismStats.countCombinedPercent(stats, rightStats), truncated, visitor.visitedNodes);
     }
 
-    public static long countPlagiarismPercentage(final Node n, final Node n2) {
-        stats.refreshStats();
-        SINGLETON.nodeEquals(n, n2);
-        return stats.countPlagiarismPercent();
+    private PlagiarismEqualsVisitor(PlagiarismStats stats, PlagiarismStats rightStats, StructuralHashes leftHashes, StructuralHashes rightHashes,
+                                    ComparisonOptions options) {
+        this.stats = stats;
+        this.rightStats = rightStats;
+        this.leftHashes = leftHashes;
+        this.rightHashes = rightHashes;
+        this.options = options;
+        this.deadlineNanos = deadlineNanos(options);
+    }
+
+    private static long deadlineNanos(ComparisonOptions options) {
+        var now = System.nanoTime();
+        var remaining = Long.MAX_VALUE;
+        if (options.getTimeLimit() != null) {
+            remaining = saturatedNanos(options.getTimeLimit());
+        }
+        if (options.getDeadline() != null) {
+            remaining = Math.min(remaining, saturatedNanos(Duration.between(Instant.now(), options.getDeadline())));
+        }
+        // anything this far away can not be reached, and keeps now + remaining from overflowing
+        return remaining >= Long.MAX_VALUE / 2 ? Long.MAX_VALUE : now + Math.max(remaining, 0);
+    }
+
+    private static long saturatedNanos(Duration duration) {
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            return duration.isNegative() ? 0 : Long.MAX_VALUE;
+        }
     }
 
-    private PlagiarismEqualsVisitor() { }
+    // every nodeEquals call spends one visit; the clock is read on the first visit and then once per DEADLINE_CHECK_INTERVAL
+    private void spendVisit() {
+        visitedNodes++;
+        if (visitedNodes > options.getNodeVisitBudget()) {
+            throw new BudgetExhaustedException();
+        }
+        if (deadlineNanos != Long.MAX_VALUE && (visitedNodes & (DEADLINE_CHECK_INTERVAL - 1)) == 1
+                && System.nanoTime() - deadlineNanos >= 0) {
+            throw new BudgetExhaustedException();
+        }
+    }
+
+    // unwinds the whole comparison; nothing is memoized on the way out because verdicts are stored after accept returns
+    private static class BudgetExhaustedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        BudgetExhaustedException() {
+            super(null, null, false, false);
+        }
+
+    }
 
     private <T extends Node> boolean nodesEquals(final List<T> nodes1, final List<T> nodes2) {
         if (nodes1 == null) {
@@ -61,7 +152,8 @@ public class PlagiarismEqualsVisitor implements GenericVisitor<Boolean, Visitabl
         return true;
     }
 
-    private <N extends Node> boolean nodesEquals(NodeList<N> n1, NodeList<N> n2) {
+    @Override
+    boolean nodesEquals(NodeList<? extends Node> n1, NodeList<? extends Node> n2) {
         if (n1 == n2) {
             return true;
         }
@@ -69,1330 +161,820 @@ public class PlagiarismEqualsVisitor implements GenericVisitor<Boolean, Visitabl
             return false;
         }
 
-        HashMap<Node, Node> hasTwin1 = new HashMap<>();
-        HashMap<Node, Integer> levenstainDistances = new HashMap<>();
-        n1.forEach(nEl -> hasTwin1.put(nEl, null));
-        n1.forEach(n1Element -> {
-            for (Node n2Element : n2) {
-                if (nodeEquals(n1Element, n2Element)) {
-                    hasTwin1.put(n1Element, n2Element);
-                    break;
-                } else if (isMethodDeclarations(n1Element, n2Element)) {
-                    levenstainDistances.put(n2Element, levenstainDistance((MethodDeclaration) n1Element, (MethodDeclaration) n2Element));
+        var alignedTwins = n1.size() > LINEAR_SCAN_LIMIT && n2.size() > LINEAR_SCAN_LIMIT ? alignedTwins(n1, n2) : null;
+        n2.forEach(rightStats::addNode);
+        boolean allHaveTwins = true;
+        for (int i = 0; i < n1.size(); i++) {
+            var n1Element = n1.get(i);
+            stats.addNode(n1Element);
+            var twin = alignedTwins != null && alignedTwins[i] >= 0 && nodeEquals(n1Element, n2.get(alignedTwins[i]))
+                    ? alignedTwins[i]
+                    : twinIndex(n1Element, n2);
+            if (twin >= 0) {
+                stats.addHasTwin(n1Element);
+                rightStats.addHasTwin(n2.get(twin));
+            } else {
+                allHaveTwins = false;
+            }
+        }
+        return allHaveTwins;
+    }
+
+    // index of the identical element the diff pairs each n1 element with, or -1
+    private int[] alignedTwins(NodeList<? extends Node> n1, NodeList<? extends Node> n2) {
+        var fingerprints1 = fingerprints(n1, leftHashes);
+        var fingerprints2 = fingerprints(n2, rightHashes);
+        if (fingerprints1 == null || fingerprints2 == null) {
+            return null;
+        }
+        var twins = new int[n1.size()];
+        Arrays.fill(twins, -1);
+        var maxEdits = Math.min(ALIGNMENT_MAX_EDITS, (n1.size() + n2.size()) / 4);
+        for (var hunk : SequenceDiff.diff(fingerprints1, fingerprints2, maxEdits)) {
+            if (hunk.getType() == SequenceDiff.HunkType.EQUAL) {
+                for (int i = hunk.getLeftFrom(), j = hunk.getRightFrom(); i < hunk.getLeftTo(); i++, j++) {
+                    twins[i] = j;
                 }
             }
-            var candidateTwin = levenstainDistances.entrySet()
-                    .stream()
-                    .filter(entry -> entry.getValue() <= ((MethodDeclaration) n1Element).getBody().get().stream().count() / 2)
-                    .findFirst();
-            candidateTwin.ifPresent(nodeIntegerEntry -> hasTwin1.put(n1Element, nodeIntegerEntry.getKey()));
-        });
-
-        hasTwin1.keySet().forEach(stats::addNode);
-        hasTwin1.entrySet().stream().filter(e -> e.getValue() != null).forEach(n -> stats.addHasTwin(n.getKey()));
-        return hasTwin1.values().stream().allMatch(Objects::nonNull);
+        }
+        return twins;
     }
 
-    private <T extends Node> boolean nodeEquals(final T n, final T n2) {
-        if (n == n2) {
-            return true;
+    // index of the first candidate equal to n1Element, or -1
+    private int twinIndex(Node n1Element, NodeList<? extends Node> n2) {
+        for (var j : twinCandidates(n1Element, n2)) {
+            if (nodeEquals(n1Element, n2.get(j))) {
+                return j;
+            }
         }
-        if (n == null || n2 == null) {
-            return false;
+        return -1;
+    }
+
+    // indices of the n2 elements that can be the twin of n1Element, in the order they are tried: short lists
+    // are scanned whole, longer ones only in the shape group, hash-equal elements first
+    private int[] twinCandidates(Node n1Element, NodeList<? extends Node> n2) {
+        var ordinal = leftHashes.ordinalOf(n1Element);
+        var buckets = n2.size() > LINEAR_SCAN_LIMIT && ordinal != NodeOrdinals.UNKNOWN
+                ? childBuckets.computeIfAbsent(n2, list -> ChildBuckets.of(list, rightHashes))
+                : null;
+        if (buckets == null) {
+            return IntStream.range(0, n2.size()).toArray();
         }
-        if (n.getClass() != n2.getClass()) {
-            return false;
+
+        var shape = leftHashes.shape(ordinal);
+        var hash = leftHashes.hash(ordinal);
+        var groupStart = buckets.groupStart(shape);
+        if (groupStart < 0) {
+            return new int[0];
         }
-        if (!commonNodeEquality(n, n2)) {
-            return false;
+        var groupEnd = groupStart;
+        while (buckets.inGroup(groupEnd, shape)) {
+            groupEnd++;
+        }
+        var candidates = new int[groupEnd - groupStart];
+        var size = 0;
+        for (int position = groupStart; position < groupEnd; position++) {
+            if (buckets.hashAt(position) == hash) {
+                candidates[size++] = buckets.indexAt(position);
+            }
         }
-        return n.accept(this, n2);
+        for (int position = groupStart; position < groupEnd; position++) {
+            if (buckets.hashAt(position) != hash) {
+                candidates[size++] = buckets.indexAt(position);
+            }
+        }
+        return candidates;
     }
 
-    private boolean commonNodeEquality(Node n, Node n2) {
-        if (!nodeEquals(n.getComment(), n2.getComment())) {
+    // members are paired one-to-one: an equal member costs nothing, a method with a close body
+    // costs its distance plus one, and no right member can be the twin of two left members
+    @Override
+    boolean membersEqual(NodeList<? extends Node> n1, NodeList<? extends Node> n2) {
+        if (n1 == n2) {
+            return true;
+        }
+        if (n1 == null || n2 == null) {
             return false;
         }
-        return nodesEquals(n.getOrphanComments(), n2.getOrphanComments());
-    }
-
-    private <T extends Node> boolean nodeEquals(final Optional<T> n, final Optional<T> n2) {
-        return nodeEquals(n.orElse(null), n2.orElse(null));
-    }
 
-    private <T extends Node> boolean nodesEquals(final Optional<NodeList<T>> n, final Optional<NodeList<T>> n2) {
-        return nodesEquals(n.orElse(null), n2.orElse(null));
+        var twins = new int[n1.size()];
+        var claimed = new boolean[n2.size()];
+        pairIdentical(n1, n2, twins, claimed);
+        var assignment = new MemberAssignment(n1.size(), n2.size());
+        for (int i = 0; i < n1.size(); i++) {
+            if (twins[i] == MemberAssignment.UNASSIGNED) {
+                addMemberCandidates(i, n1, n2, claimed, assignment);
+            }
+        }
+        var assigned = assignment.solve(ASSIGNMENT_SOLVER_LIMIT);
+
+        n2.forEach(rightStats::addNode);
+        boolean allHaveTwins = true;
+        for (int i = 0; i < n1.size(); i++) {
+            var n1Element = n1.get(i);
+            stats.addNode(n1Element);
+            var twin = twins[i] != MemberAssignment.UNASSIGNED ? twins[i] : assigned[i];
+            if (twin != MemberAssignment.UNASSIGNED) {
+                stats.addHasTwin(n1Element);
+                rightStats.addHasTwin(n2.get(twin));
+            } else {
+                allHaveTwins = false;
+            }
+        }
+        return allHaveTwins;
     }
 
-    private boolean objEquals(final Object n, final Object n2) {
-        if (n == n2) {
-            return true;
-        }
-        if (n == null || n2 == null) {
+    // the operands of two commutative chains are paired one-to-one: identical ones first, then the remaining
+    // ones by a maximum bipartite matching that only compares operands of the same shape, and only once a path needs them
+    @Override
+    boolean chainEquals(BinaryExpr n, BinaryExpr n2) {
+        var operands1 = ComparisonRules.chainOperands(n);
+        var operands2 = ComparisonRules.chainOperands(n2);
+        if (operands1.size() != operands2.size()) {
             return false;
         }
-        return n.equals(n2);
+        var twins = new int[operands1.size()];
+        var claimed = new boolean[operands2.size()];
+        pairIdentical(operands1, operands2, twins, claimed);
+        var rows = unpaired(twins);
+        var columns = unclaimed(claimed);
+        var matching = operandMatching(operands1, operands2, rows, columns);
+        while (matching.needsEdge()) {
+            matching.answer(nodeEquals(
+                    operands1.get(rows[matching.pendingRow()]), operands2.get(columns[matching.pendingColumn()])));
+        }
+        return matching.isMatched();
     }
 
-    private int levenstainDistance(MethodDeclaration method1, MethodDeclaration method2) {
-        return levenstainDistance(method1.getBody().get().getStatements(), method2.getBody().get().getStatements());
+    private static int[] unpaired(int[] twins) {
+        return IntStream.range(0, twins.length).filter(i -> twins[i] == MemberAssignment.UNASSIGNED).toArray();
     }
 
-    private int levenstainDistance(List<? extends Node> block1, List<? extends Node> block2) {
-        int[] Di_1 = new int[block2.size() + 1];
-        int[] Di = new int[block2.size() + 1];
+    private static int[] unclaimed(boolean[] claimed) {
+        return IntStream.range(0, claimed.length).filter(j -> !claimed[j]).toArray();
+    }
 
-        for (int j = 0; j <= block2.size(); j++) {
-            Di[j] = j;
+    // operands of different shapes are never equal, so each row only gets the columns of its own shape bucket
+    private OperandMatching operandMatching(List<Expression> operands1, List<Expression> operands2, int[] rows, int[] columns) {
+        var buckets = new HashMap<Long, List<Integer>>();
+        var unbucketed = new ArrayList<Integer>();
+        for (int column = 0; column < columns.length; column++) {
+            var ordinal = rightHashes.ordinalOf(operands2.get(columns[column]));
+            if (ordinal == NodeOrdinals.UNKNOWN) {
+                unbucketed.add(column);
+            } else {
+                buckets.computeIfAbsent(rightHashes.shape(ordinal), shape -> new ArrayList<>()).add(column);
+            }
         }
-
-        for (int i = 1; i <= block1.size(); i++) {
-            System.arraycopy(Di, 0, Di_1, 0, Di_1.length);
-
-            Di[0] = i;
-            for (int j = 1; j <= block2.size(); j++) {
-                int cost = nodeEquals(block1.get(i - 1), block2.get(j - 1)) ? 0 : 1;
-                Di[j] = min(
-                        Di_1[j] + 1,
-                        Di[j - 1] + 1,
-                        Di_1[j - 1] + cost
-                );
+        var candidates = new int[rows.length][];
+        for (int row = 0; row < rows.length; row++) {
+            var ordinal = leftHashes.ordinalOf(operands1.get(rows[row]));
+            if (ordinal == NodeOrdinals.UNKNOWN) {
+                candidates[row] = IntStream.range(0, columns.length).toArray();
+                continue;
             }
+            var bucket = buckets.getOrDefault(leftHashes.shape(ordinal), List.of());
+            candidates[row] = IntStream.concat(bucket.stream().mapToInt(Integer::intValue),
+                    unbucketed.stream().mapToInt(Integer::intValue)).toArray();
         }
-
-        return Di[Di.length - 1];
-    }
-
-    private int min(int n1, int n2, int n3) {
-        return Math.min(Math.min(n1, n2), n3);
+        return new OperandMatching(candidates, columns.length);
     }
 
-    private boolean isCommutativeSwap(BinaryExpr expr1, BinaryExpr expr2) {
-        if (commutativeOperators.contains(expr1.getOperator()) && commutativeOperators.contains(expr2.getOperator())) {
-            if (nodeEquals(expr1.getLeft(), expr2.getRight()) &&
-                    nodeEquals(expr1.getRight(), expr2.getLeft())) {
-                return true;
+    // structurally identical members and chain operands are paired up front in list order, so only the rest are searched
+    private void pairIdentical(List<? extends Node> n1, List<? extends Node> n2, int[] twins, boolean[] claimed) {
+        Arrays.fill(twins, MemberAssignment.UNASSIGNED);
+        var unclaimed = new HashMap<Long, ArrayDeque<Integer>>();
+        for (int j = 0; j < n2.size(); j++) {
+            var ordinal = rightHashes.ordinalOf(n2.get(j));
+            if (ordinal != NodeOrdinals.UNKNOWN) {
+                unclaimed.computeIfAbsent(rightHashes.hash(ordinal), hash -> new ArrayDeque<>()).add(j);
+            }
+        }
+        for (int i = 0; i < n1.size(); i++) {
+            var ordinal = leftHashes.ordinalOf(n1.get(i));
+            var candidates = ordinal == NodeOrdinals.UNKNOWN ? null : unclaimed.get(leftHashes.hash(ordinal));
+            if (candidates != null && !candidates.isEmpty() && nodeEquals(n1.get(i), n2.get(candidates.peekFirst()))) {
+                twins[i] = candidates.pollFirst();
+                claimed[twins[i]] = true;
             }
         }
-        return false;
     }
 
-    private boolean isMethodDeclarations(Node el1, Node el2) {
-        return el1.getClass().equals(MethodDeclaration.class) && el2.getClass().equals(MethodDeclaration.class);
+    private void addMemberCandidates(int i, NodeList<? extends Node> n1, NodeList<? extends Node> n2, boolean[] claimed, MemberAssignment assignment) {
+        var n1Element = n1.get(i);
+        var equal = new boolean[n2.size()];
+        var found = 0;
+        for (var j : sameShapeIndices(n1Element, n2)) {
+            if (found == MAX_MEMBER_CANDIDATES) {
+                break;
+            }
+            if (!claimed[j] && nodeEquals(n1Element, n2.get(j))) {
+                equal[j] = true;
+                assignment.addCandidate(i, j, 0);
+                found++;
+            }
+        }
+        if (!(n1Element instanceof MethodDeclaration)) {
+            return;
+        }
+        var method1 = (MethodDeclaration) n1Element;
+        var maxDistance = bodySize(method1) / 2;
+        var evaluations = 0;
+        for (int j = 0; j < n2.size() && found < MAX_MEMBER_CANDIDATES && evaluations < MAX_DISTANCE_EVALUATIONS; j++) {
+            if (!claimed[j] && !equal[j] && isMethodDeclarations(n1Element, n2.get(j))) {
+                evaluations++;
+                var distance = bodyDistance(method1, (MethodDeclaration) n2.get(j), maxDistance);
+                if (distance <= maxDistance) {
+                    assignment.addCandidate(i, j, distance + 1);
+                    found++;
+                }
+            }
+        }
     }
 
     @Override
-    public Boolean visit(final CompilationUnit n, final Visitable arg) {
-        final CompilationUnit n2 = (CompilationUnit) arg;
-        if (!nodesEquals(n.getImports(), n2.getImports()))
-            return false;
-        if (!nodeEquals(n.getModule(), n2.getModule()))
-            return false;
-        if (!nodeEquals(n.getPackageDeclaration(), n2.getPackageDeclaration()))
-            return false;
-        if (!nodesEquals(n.getTypes(), n2.getTypes()))
+    boolean nodeEquals(final Node n, final Node n2) {
+        if (options.getTraversal() == Traversal.ITERATIVE) {
+            return iterativeNodeEquals(n, n2);
+        }
+        if (n == n2) {
+            return true;
+        }
+        if (n == null || n2 == null) {
             return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
+        }
+        if (n.getClass() != n2.getClass()) {
             return false;
-        return true;
+        }
+        spendVisit();
+        var leftOrdinal = leftHashes.ordinalOf(n);
+        var rightOrdinal = rightHashes.ordinalOf(n2);
+        var verdict = knownVerdict(leftOrdinal, rightOrdinal);
+        if (verdict != PairMemo.UNKNOWN) {
+            return verdict == PairMemo.EQUAL;
+        }
+        var equal = commonNodeEquality(n, n2) && propertiesEqual(n, n2);
+        remember(leftOrdinal, rightOrdinal, equal);
+        return equal;
     }
 
-    @Override
-    public Boolean visit(final PackageDeclaration n, final Visitable arg) {
-        return true;
+    // the verdict the hashes or the memo already give for a pair, or PairMemo.UNKNOWN when it has to be walked
+    private byte knownVerdict(int leftOrdinal, int rightOrdinal) {
+        if (leftOrdinal == NodeOrdinals.UNKNOWN || rightOrdinal == NodeOrdinals.UNKNOWN) {
+            return PairMemo.UNKNOWN;
+        }
+        if (leftHashes.shape(leftOrdinal) != rightHashes.shape(rightOrdinal)) {
+            return PairMemo.NOT_EQUAL;
+        }
+        if (leftHashes.hash(leftOrdinal) == rightHashes.hash(rightOrdinal)) {
+            addTwinSubtree(leftOrdinal, rightOrdinal);
+            return PairMemo.EQUAL;
+        }
+        return isMemoized(leftOrdinal, rightOrdinal) ? memo.get(leftOrdinal, rightOrdinal) : PairMemo.UNKNOWN;
     }
 
-    @Override
-    public Boolean visit(final TypeParameter n, final Visitable arg) {
-        final TypeParameter n2 = (TypeParameter) arg;
-        if (!nodesEquals(n.getTypeBound(), n2.getTypeBound()))
-            return false;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
+    private boolean isMemoized(int leftOrdinal, int rightOrdinal) {
+        return leftOrdinal != NodeOrdinals.UNKNOWN && rightOrdinal != NodeOrdinals.UNKNOWN
+                && leftHashes.getOrdinals().subtreeSize(leftOrdinal) >= MEMO_MIN_SUBTREE_SIZE;
     }
 
-    @Override
-    public Boolean visit(final LineComment n, final Visitable arg) {
-        return true;
+    private void remember(int leftOrdinal, int rightOrdinal, boolean equal) {
+        if (isMemoized(leftOrdinal, rightOrdinal)) {
+            memo.put(leftOrdinal, rightOrdinal, equal);
+        }
     }
 
-    @Override
-    public Boolean visit(final BlockComment n, final Visitable arg) {
-        return true;
+    // nodeEquals with the recursion through propertiesEqual and nodesEquals moved onto an explicit stack.
+    // NodePropertyComparator is generated from ComparisonRules.comparedProperties, so walking them here
+    // visits the same pairs in the same order and records the same stats
+    private boolean iterativeNodeEquals(Node n, Node n2) {
+        var stack = new ArrayDeque<Frame>();
+        var root = new NodeFrame(n, n2);
+        stack.push(root);
+        var childEqual = false;
+        while (!stack.isEmpty()) {
+            var frame = stack.peek();
+            var child = frame.resume(childEqual);
+            if (child != null) {
+                stack.push(child);
+            } else {
+                stack.pop();
+                childEqual = frame.equal;
+            }
+        }
+        return root.equal;
     }
 
-    @Override
-    public Boolean visit(final ClassOrInterfaceDeclaration n, final Visitable arg) {
-        final ClassOrInterfaceDeclaration n2 = (ClassOrInterfaceDeclaration) arg;
-        if (!nodesEquals(n.getExtendedTypes(), n2.getExtendedTypes()))
-            return false;
-        if (!nodesEquals(n.getImplementedTypes(), n2.getImplementedTypes()))
-            return false;
-        if (!objEquals(n.isInterface(), n2.isInterface()))
-            return false;
-        if (!nodesEquals(n.getTypeParameters(), n2.getTypeParameters()))
-            return false;
-        if (!nodesEquals(n.getMembers(), n2.getMembers()))
-            return false;
-        if (!nodesEquals(n.getModifiers(), n2.getModifiers()))
-            return false;
+    private abstract static class Frame {
 
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
+        boolean equal;
 
-    @Override
-    public Boolean visit(final EnumDeclaration n, final Visitable arg) {
-        final EnumDeclaration n2 = (EnumDeclaration) arg;
-        if (!nodesEquals(n.getEntries(), n2.getEntries()))
-            return false;
-        if (!nodesEquals(n.getImplementedTypes(), n2.getImplementedTypes()))
-            return false;
-        if (!nodesEquals(n.getMembers(), n2.getMembers()))
-            return false;
-        if (!nodesEquals(n.getModifiers(), n2.getModifiers()))
-            return false;
+        // the comparison this frame waits for next, or null once equal holds its verdict
+        abstract Frame resume(boolean childEqual);
 
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
+        Frame done(boolean equal) {
+            this.equal = equal;
+            return null;
+        }
 
-    @Override
-    public Boolean visit(final EnumConstantDeclaration n, final Visitable arg) {
-        final EnumConstantDeclaration n2 = (EnumConstantDeclaration) arg;
-        if (!nodesEquals(n.getArguments(), n2.getArguments()))
-            return false;
-        if (!nodesEquals(n.getClassBody(), n2.getClassBody()))
-            return false;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
     }
 
-    @Override
-    public Boolean visit(final AnnotationDeclaration n, final Visitable arg) {
-        final AnnotationDeclaration n2 = (AnnotationDeclaration) arg;
-        if (!nodesEquals(n.getMembers(), n2.getMembers()))
-            return false;
-        if (!nodesEquals(n.getModifiers(), n2.getModifiers()))
-            return false;
+    private class NodeFrame extends Frame {
 
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
+        private final Node n;
+        private final Node n2;
+        private int leftOrdinal;
+        private int rightOrdinal;
+        private List<ComparisonRules.Property> properties;
+        private int next = -1;
 
-    @Override
-    public Boolean visit(final AnnotationMemberDeclaration n, final Visitable arg) {
-        final AnnotationMemberDeclaration n2 = (AnnotationMemberDeclaration) arg;
-        if (!nodeEquals(n.getDefaultValue(), n2.getDefaultValue()))
-            return false;
-        if (!nodesEquals(n.getModifiers(), n2.getModifiers()))
-            return false;
+        NodeFrame(Node n, Node n2) {
+            this.n = n;
+            this.n2 = n2;
+        }
 
-        if (!nodeEquals(n.getType(), n2.getType()))
-            return false;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
+        @Override
+        Frame resume(boolean childEqual) {
+            if (properties == null) {
+                return start();
+            }
+            return childEqual ? nextProperty() : finish(false);
+        }
 
-    @Override
-    public Boolean visit(final FieldDeclaration n, final Visitable arg) {
-        final FieldDeclaration n2 = (FieldDeclaration) arg;
-        if (!nodesEquals(n.getModifiers(), n2.getModifiers()))
-            return false;
-        if (!nodesEquals(n.getVariables(), n2.getVariables()))
-            return false;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
+        private Frame start() {
+            if (n == n2) {
+                return done(true);
+            }
+            if (n == null || n2 == null || n.getClass() != n2.getClass()) {
+                return done(false);
+            }
+            spendVisit();
+            leftOrdinal = leftHashes.ordinalOf(n);
+            rightOrdinal = rightHashes.ordinalOf(n2);
+            var verdict = knownVerdict(leftOrdinal, rightOrdinal);
+            if (verdict != PairMemo.UNKNOWN) {
+                return done(verdict == PairMemo.EQUAL);
+            }
+            if (!commonNodeEquality(n, n2)) {
+                return finish(false);
+            }
+            properties = ComparisonRules.comparedProperties(n);
+            if (n instanceof BinaryExpr) {
+                var expr1 = (BinaryExpr) n;
+                var expr2 = (BinaryExpr) n2;
+                if (expr1.getOperator() != expr2.getOperator()) {
+                    return finish(false);
+                }
+                if (ComparisonRules.isCommutative(expr1.getOperator())) {
+                    // the chain frame answers for the whole node
+                    properties = List.of();
+                    return new ChainFrame(expr1, expr2);
+                }
+            }
+            return nextProperty();
+        }
 
-    @Override
-    public Boolean visit(final VariableDeclarator n, final Visitable arg) {
-        final VariableDeclarator n2 = (VariableDeclarator) arg;
-        if (!nodeEquals(n.getInitializer(), n2.getInitializer()))
-            return false;
+        private Frame nextProperty() {
+            while (++next < properties.size()) {
+                var property = properties.get(next);
+                if (property.isNodeList()) {
+                    var list = property.nodeListOf(n);
+                    var list2 = property.nodeListOf(n2);
+                    if (!ComparisonRules.isMemberList(property)) {
+                        return new ListFrame(list, list2);
+                    }
+                    if (!membersEqual(list, list2)) {
+                        return finish(false);
+                    }
+                } else if (property.isNode()) {
+                    return new NodeFrame(property.nodeOf(n), property.nodeOf(n2));
+                } else if (!objEquals(property.valueOf(n), property.valueOf(n2))) {
+                    return finish(false);
+                }
+            }
+            return finish(true);
+        }
+
+        private Frame finish(boolean equal) {
+            remember(leftOrdinal, rightOrdinal, equal);
+            return done(equal);
+        }
 
-        if (!nodeEquals(n.getType(), n2.getType()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
     }
 
-    @Override
-    public Boolean visit(final ConstructorDeclaration n, final Visitable arg) {
-        final ConstructorDeclaration n2 = (ConstructorDeclaration) arg;
-        if (!nodeEquals(n.getBody(), n2.getBody()))
-            return false;
-        if (!nodesEquals(n.getModifiers(), n2.getModifiers()))
-            return false;
+    // chainEquals one operand pair at a time
+    private class ChainFrame extends Frame {
 
-        if (!nodesEquals(n.getParameters(), n2.getParameters()))
-            return false;
-        if (!nodeEquals(n.getReceiverParameter(), n2.getReceiverParameter()))
-            return false;
-        if (!nodesEquals(n.getThrownExceptions(), n2.getThrownExceptions()))
-            return false;
-        if (!nodesEquals(n.getTypeParameters(), n2.getTypeParameters()))
-            return false;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
+        private final List<Expression> operands1;
+        private final List<Expression> operands2;
+        private int[] rows;
+        private int[] columns;
+        private OperandMatching matching;
 
-    @Override
-    public Boolean visit(final MethodDeclaration n, final Visitable arg) {
-        final MethodDeclaration n2 = (MethodDeclaration) arg;
-        if (!nodeEquals(n.getBody(), n2.getBody()))
-            return false;
-        if (!nodeEquals(n.getType(), n2.getType()))
-            return false;
-        if (!nodesEquals(n.getModifiers(), n2.getModifiers()))
-            return false;
+        ChainFrame(BinaryExpr n, BinaryExpr n2) {
+            this.operands1 = ComparisonRules.chainOperands(n);
+            this.operands2 = ComparisonRules.chainOperands(n2);
+        }
+
+        @Override
+        Frame resume(boolean childEqual) {
+            if (matching == null) {
+                if (operands1.size() != operands2.size()) {
+                    return done(false);
+                }
+                var twins = new int[operands1.size()];
+                var claimed = new boolean[operands2.size()];
+                pairIdentical(operands1, operands2, twins, claimed);
+                rows = unpaired(twins);
+                columns = unclaimed(claimed);
+                matching = operandMatching(operands1, operands2, rows, columns);
+            } else {
+                matching.answer(childEqual);
+            }
+            if (!matching.needsEdge()) {
+                return done(matching.isMatched());
+            }
+            return new NodeFrame(operands1.get(rows[matching.pendingRow()]), operands2.get(columns[matching.pendingColumn()]));
+        }
 
-        if (!nodesEquals(n.getParameters(), n2.getParameters()))
-            return false;
-        if (!nodeEquals(n.getReceiverParameter(), n2.getReceiverParameter()))
-            return false;
-        if (!nodesEquals(n.getThrownExceptions(), n2.getThrownExceptions()))
-            return false;
-        if (!nodesEquals(n.getTypeParameters(), n2.getTypeParameters()))
-            return false;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
     }
 
-    @Override
-    public Boolean visit(final Parameter n, final Visitable arg) {
-        final Parameter n2 = (Parameter) arg;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!objEquals(n.isVarArgs(), n2.isVarArgs()))
-            return false;
-        if (!nodesEquals(n.getModifiers(), n2.getModifiers()))
-            return false;
+    // nodesEquals(NodeList, NodeList) one twin candidate at a time
+    private class ListFrame extends Frame {
 
-        if (!nodeEquals(n.getType(), n2.getType()))
-            return false;
-        if (!nodesEquals(n.getVarArgsAnnotations(), n2.getVarArgsAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
+        private final NodeList<? extends Node> n1;
+        private final NodeList<? extends Node> n2;
+        private int[] alignedTwins;
+        private boolean started;
+        private boolean allHaveTwins = true;
+        private int i = -1;
+        private boolean searching;
+        private int[] candidates;
+        private int candidate;
+        private int twin;
+
+        ListFrame(NodeList<? extends Node> n1, NodeList<? extends Node> n2) {
+            this.n1 = n1;
+            this.n2 = n2;
+        }
+
+        @Override
+        Frame resume(boolean childEqual) {
+            if (!started) {
+                started = true;
+                if (n1 == n2) {
+                    return done(true);
+                }
+                if (n1 == null || n2 == null) {
+                    return done(false);
+                }
+                alignedTwins = n1.size() > LINEAR_SCAN_LIMIT && n2.size() > LINEAR_SCAN_LIMIT ? alignedTwins(n1, n2) : null;
+                n2.forEach(rightStats::addNode);
+            } else if (childEqual) {
+                stats.addHasTwin(n1.get(i));
+                rightStats.addHasTwin(n2.get(twin));
+                searching = false;
+            }
+            return nextCandidate();
+        }
+
+        private Frame nextCandidate() {
+            while (true) {
+                if (!searching) {
+                    if (++i == n1.size()) {
+                        return done(allHaveTwins);
+                    }
+                    stats.addNode(n1.get(i));
+                    searching = true;
+                    candidates = null;
+                    if (alignedTwins != null && alignedTwins[i] >= 0) {
+                        twin = alignedTwins[i];
+                        return new NodeFrame(n1.get(i), n2.get(twin));
+                    }
+                }
+                if (candidates == null) {
+                    candidates = twinCandidates(n1.get(i), n2);
+                    candidate = 0;
+                }
+                if (candidate < candidates.length) {
+                    twin = candidates[candidate++];
+                    return new NodeFrame(n1.get(i), n2.get(twin));
+                }
+                allHaveTwins = false;
+                searching = false;
+            }
+        }
 
-    @Override
-    public Boolean visit(final InitializerDeclaration n, final Visitable arg) {
-        final InitializerDeclaration n2 = (InitializerDeclaration) arg;
-        if (!nodeEquals(n.getBody(), n2.getBody()))
-            return false;
-        if (!objEquals(n.isStatic(), n2.isStatic()))
-            return false;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
     }
 
+    // a node type added to javaparser after NodePropertyComparator was generated, compared straight from the metamodel
     @Override
-    public Boolean visit(final JavadocComment n, final Visitable arg) {
+    boolean unknownKindEquals(Node n, Node n2) {
+        for (var property : ComparisonRules.comparedProperties(n)) {
+            boolean equal;
+            if (ComparisonRules.isMemberList(property)) {
+                equal = membersEqual(property.nodeListOf(n), property.nodeListOf(n2));
+            } else if (property.isNodeList()) {
+                equal = nodesEquals(property.nodeListOf(n), property.nodeListOf(n2));
+            } else if (property.isNode()) {
+                equal = nodeEquals(property.nodeOf(n), property.nodeOf(n2));
+            } else {
+                equal = objEquals(property.valueOf(n), property.valueOf(n2));
+            }
+            if (!equal) {
+                return false;
+            }
+        }
         return true;
     }
 
-    @Override
-    public Boolean visit(final ClassOrInterfaceType n, final Visitable arg) {
-        final ClassOrInterfaceType n2 = (ClassOrInterfaceType) arg;
-
-        if (!nodeEquals(n.getScope(), n2.getScope()))
-            return false;
-        if (!nodesEquals(n.getTypeArguments(), n2.getTypeArguments()))
-            return false;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final PrimitiveType n, final Visitable arg) {
-        final PrimitiveType n2 = (PrimitiveType) arg;
-        if (!objEquals(n.getType(), n2.getType()))
-            return false;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final ArrayType n, final Visitable arg) {
-        final ArrayType n2 = (ArrayType) arg;
-        if (!nodeEquals(n.getComponentType(), n2.getComponentType()))
-            return false;
-        if (!objEquals(n.getOrigin(), n2.getOrigin()))
-            return false;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final ArrayCreationLevel n, final Visitable arg) {
-        final ArrayCreationLevel n2 = (ArrayCreationLevel) arg;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getDimension(), n2.getDimension()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final IntersectionType n, final Visitable arg) {
-        final IntersectionType n2 = (IntersectionType) arg;
-        if (!nodesEquals(n.getElements(), n2.getElements()))
-            return false;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final UnionType n, final Visitable arg) {
-        final UnionType n2 = (UnionType) arg;
-        if (!nodesEquals(n.getElements(), n2.getElements()))
-            return false;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final VoidType n, final Visitable arg) {
-        final VoidType n2 = (VoidType) arg;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final WildcardType n, final Visitable arg) {
-        final WildcardType n2 = (WildcardType) arg;
-        if (!nodeEquals(n.getExtendedType(), n2.getExtendedType()))
-            return false;
-        if (!nodeEquals(n.getSuperType(), n2.getSuperType()))
-            return false;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final UnknownType n, final Visitable arg) {
-        final UnknownType n2 = (UnknownType) arg;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final ArrayAccessExpr n, final Visitable arg) {
-        final ArrayAccessExpr n2 = (ArrayAccessExpr) arg;
-        if (!nodeEquals(n.getIndex(), n2.getIndex()))
-            return false;
-
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final ArrayCreationExpr n, final Visitable arg) {
-        final ArrayCreationExpr n2 = (ArrayCreationExpr) arg;
-        if (!nodeEquals(n.getElementType(), n2.getElementType()))
-            return false;
-        if (!nodeEquals(n.getInitializer(), n2.getInitializer()))
-            return false;
-        if (!nodesEquals(n.getLevels(), n2.getLevels()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final ArrayInitializerExpr n, final Visitable arg) {
-        final ArrayInitializerExpr n2 = (ArrayInitializerExpr) arg;
-        if (!nodesEquals(n.getValues(), n2.getValues()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final AssignExpr n, final Visitable arg) {
-        final AssignExpr n2 = (AssignExpr) arg;
-        if (!objEquals(n.getOperator(), n2.getOperator()))
-            return false;
-        if (!nodeEquals(n.getTarget(), n2.getTarget()))
-            return false;
-        if (!nodeEquals(n.getValue(), n2.getValue()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
+    // what the visitor would have recorded while walking two equal subtrees: every left list element it reaches,
+    // and on the right every element of the lists it compares but only the ones some left element was paired with
+    private void addTwinSubtree(int leftOrdinal, int rightOrdinal) {
+        var end = leftOrdinal + leftHashes.getOrdinals().subtreeSize(leftOrdinal);
+        for (int i = leftHashes.nextListElement(leftOrdinal + 1); i >= 0 && i < end; i = leftHashes.nextListElement(i + 1)) {
+            stats.addNode(i);
+            stats.addHasTwin(i);
+        }
+        addRightTwins(leftHashes.getOrdinals().nodeAt(leftOrdinal), rightHashes.getOrdinals().nodeAt(rightOrdinal));
+    }
+
+    // pairs list elements the way the walk does, with equal hashes standing in for nodeEquals: members and chain
+    // operands one-to-one, other lists by the diff alignment or else the first candidate, so a repeated right
+    // element that every left element finds a copy of before it stays without a twin
+    private void addRightTwins(Node n, Node n2) {
+        var pairs = new ArrayDeque<Node[]>();
+        pairs.push(new Node[]{n, n2});
+        while (!pairs.isEmpty()) {
+            var pair = pairs.pop();
+            var rightOrdinal = rightHashes.ordinalOf(pair[1]);
+            if (recordedRightSubtrees.get(rightOrdinal)) {
+                continue;
+            }
+            recordedRightSubtrees.set(rightOrdinal);
+            if (pair[0] instanceof BinaryExpr && ComparisonRules.isCommutative(((BinaryExpr) pair[0]).getOperator())) {
+                var operands1 = ComparisonRules.chainOperands((BinaryExpr) pair[0]);
+                var operands2 = ComparisonRules.chainOperands((BinaryExpr) pair[1]);
+                var twins = identicalTwins(operands1, operands2);
+                for (int i = 0; i < twins.length; i++) {
+                    if (twins[i] != MemberAssignment.UNASSIGNED) {
+                        pairs.push(new Node[]{operands1.get(i), operands2.get(twins[i])});
+                    }
+                }
+                continue;
+            }
+            for (ComparisonRules.Property property : ComparisonRules.comparedProperties(pair[0])) {
+                if (property.isNodeList()) {
+                    var list1 = property.nodeListOf(pair[0]);
+                    var list2 = property.nodeListOf(pair[1]);
+                    if (list1 == null || list2 == null) {
+                        continue;
+                    }
+                    list2.forEach(rightStats::addNode);
+                    var twins = ComparisonRules.isMemberList(property) ? identicalTwins(list1, list2) : firstTwins(list1, list2);
+                    var paired = new boolean[list2.size()];
+                    for (int i = 0; i < twins.length; i++) {
+                        if (twins[i] != MemberAssignment.UNASSIGNED && !paired[twins[i]]) {
+                            paired[twins[i]] = true;
+                            rightStats.addHasTwin(list2.get(twins[i]));
+                            pairs.push(new Node[]{list1.get(i), list2.get(twins[i])});
+                        }
+                    }
+                } else if (property.isNode()) {
+                    var child = property.nodeOf(pair[0]);
+                    var child2 = property.nodeOf(pair[1]);
+                    if (child != null && child2 != null) {
+                        pairs.push(new Node[]{child, child2});
+                    }
+                }
+            }
+        }
     }
 
-    @Override
-    public Boolean visit(final BinaryExpr n, final Visitable arg) {
-        final BinaryExpr n2 = (BinaryExpr) arg;
-        if (!objEquals(n.getOperator(), n2.getOperator())) {
-            return false;
-        }
-        if (isCommutativeSwap(n, n2)) {
-            return true;
+    // pairIdentical without the nodeEquals check, for lists already known to be identical
+    private int[] identicalTwins(List<? extends Node> n1, List<? extends Node> n2) {
+        var unclaimed = new HashMap<Long, ArrayDeque<Integer>>();
+        for (int j = 0; j < n2.size(); j++) {
+            unclaimed.computeIfAbsent(rightHashes.hash(rightHashes.ordinalOf(n2.get(j))), hash -> new ArrayDeque<>()).add(j);
         }
-        if (!nodeEquals(n.getLeft(), n2.getLeft())) {
-            return false;
+        var twins = new int[n1.size()];
+        for (int i = 0; i < n1.size(); i++) {
+            var candidates = unclaimed.get(leftHashes.hash(leftHashes.ordinalOf(n1.get(i))));
+            twins[i] = candidates == null || candidates.isEmpty() ? MemberAssignment.UNASSIGNED : candidates.pollFirst();
         }
-        if (!nodeEquals(n.getRight(), n2.getRight())) {
-            return false;
+        return twins;
+    }
+
+    // the twin nodesEquals would pick for each element, in the order it tries them
+    private int[] firstTwins(NodeList<? extends Node> n1, NodeList<? extends Node> n2) {
+        var alignedTwins = n1.size() > LINEAR_SCAN_LIMIT && n2.size() > LINEAR_SCAN_LIMIT ? alignedTwins(n1, n2) : null;
+        var twins = new int[n1.size()];
+        for (int i = 0; i < n1.size(); i++) {
+            twins[i] = MemberAssignment.UNASSIGNED;
+            if (alignedTwins != null && alignedTwins[i] >= 0) {
+                twins[i] = alignedTwins[i];
+                continue;
+            }
+            var hash = leftHashes.hash(leftHashes.ordinalOf(n1.get(i)));
+            for (var j : twinCandidates(n1.get(i), n2)) {
+                if (rightHashes.hash(rightHashes.ordinalOf(n2.get(j))) == hash) {
+                    twins[i] = j;
+                    break;
+                }
+            }
         }
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final CastExpr n, final Visitable arg) {
-        final CastExpr n2 = (CastExpr) arg;
-        if (!nodeEquals(n.getExpression(), n2.getExpression()))
-            return false;
-        if (!nodeEquals(n.getType(), n2.getType()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final ClassExpr n, final Visitable arg) {
-        final ClassExpr n2 = (ClassExpr) arg;
-        if (!nodeEquals(n.getType(), n2.getType()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final ConditionalExpr n, final Visitable arg) {
-        final ConditionalExpr n2 = (ConditionalExpr) arg;
-        if (!nodeEquals(n.getCondition(), n2.getCondition()))
-            return false;
-        if (!nodeEquals(n.getElseExpr(), n2.getElseExpr()))
-            return false;
-        if (!nodeEquals(n.getThenExpr(), n2.getThenExpr()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final EnclosedExpr n, final Visitable arg) {
-        final EnclosedExpr n2 = (EnclosedExpr) arg;
-        if (!nodeEquals(n.getInner(), n2.getInner()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
+        return twins;
     }
 
-    @Override
-    public Boolean visit(final FieldAccessExpr n, final Visitable arg) {
-        final FieldAccessExpr n2 = (FieldAccessExpr) arg;
-
-        if (!nodeEquals(n.getScope(), n2.getScope()))
-            return false;
-        if (!nodesEquals(n.getTypeArguments(), n2.getTypeArguments()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
+    private boolean commonNodeEquality(Node n, Node n2) {
+        if (!nodeEquals(n.getComment().orElse(null), n2.getComment().orElse(null))) {
             return false;
-        return true;
+        }
+        return nodesEquals(n.getOrphanComments(), n2.getOrphanComments());
     }
 
-    @Override
-    public Boolean visit(final InstanceOfExpr n, final Visitable arg) {
-        final InstanceOfExpr n2 = (InstanceOfExpr) arg;
-        if (!nodeEquals(n.getExpression(), n2.getExpression()))
-            return false;
-        if (!nodeEquals(n.getPattern(), n2.getPattern()))
-            return false;
-        if (!nodeEquals(n.getType(), n2.getType()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
+    private boolean objEquals(final Object n, final Object n2) {
+        if (n == n2) {
+            return true;
+        }
+        if (n == null || n2 == null) {
             return false;
-        return true;
+        }
+        return n.equals(n2);
     }
 
-    @Override
-    public Boolean visit(final StringLiteralExpr n, final Visitable arg) {
-        final StringLiteralExpr n2 = (StringLiteralExpr) arg;
-        if (!objEquals(n.getValue(), n2.getValue()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
+    // indices of the n2 elements that can be equal to n1Element, in list order
+    private int[] sameShapeIndices(Node n1Element, NodeList<? extends Node> n2) {
+        var ordinal = leftHashes.ordinalOf(n1Element);
+        var buckets = n2.size() > LINEAR_SCAN_LIMIT && ordinal != NodeOrdinals.UNKNOWN
+                ? childBuckets.computeIfAbsent(n2, list -> ChildBuckets.of(list, rightHashes))
+                : null;
+        if (buckets == null) {
+            return IntStream.range(0, n2.size()).toArray();
+        }
+        var shape = leftHashes.shape(ordinal);
+        var groupStart = buckets.groupStart(shape);
+        if (groupStart < 0) {
+            return new int[0];
+        }
+        var groupEnd = groupStart;
+        while (buckets.inGroup(groupEnd, shape)) {
+            groupEnd++;
+        }
+        return IntStream.range(groupStart, groupEnd).map(buckets::indexAt).toArray();
     }
 
-    @Override
-    public Boolean visit(final IntegerLiteralExpr n, final Visitable arg) {
-        final IntegerLiteralExpr n2 = (IntegerLiteralExpr) arg;
-        if (!objEquals(n.getValue(), n2.getValue()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
+    // Levenshtein distance between the method bodies, or maxDistance + 1 when they are further apart
+    private int bodyDistance(MethodDeclaration method1, MethodDeclaration method2, int maxDistance) {
+        var block1 = bodyStatements(method1);
+        var block2 = bodyStatements(method2);
+        if (Math.abs(block1.size() - block2.size()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        var shapes1 = sortedShapes(block1, leftHashes);
+        var shapes2 = sortedShapes(block2, rightHashes);
+        // statements of different shapes are never equal, so every unmatched one costs at least an edit
+        if (shapes1 != null && shapes2 != null
+                && Math.max(block1.size(), block2.size()) - commonCount(shapes1, shapes2) > maxDistance) {
+            return maxDistance + 1;
+        }
+        var fingerprints1 = fingerprints(block1, leftHashes);
+        var fingerprints2 = fingerprints(block2, rightHashes);
+        if (fingerprints1 != null && fingerprints2 != null) {
+            if (options.getDistanceKernel() == DistanceKernel.BIT_PARALLEL) {
+                return Math.min(EditDistance.bitParallel(fingerprints1, fingerprints2), maxDistance + 1);
+            }
+            // identical statements are equal for the visitor too, and inserts plus deletes never undercount
+            // Levenshtein, so the cheaper diff narrows the band
+            var indels = SequenceDiff.distance(fingerprints1, fingerprints2, maxDistance);
+            if (indels == 0) {
+                return 0;
+            }
+            maxDistance = Math.min(maxDistance, indels);
+        }
+        return levenstainDistance(block1, block2, maxDistance);
     }
 
-    @Override
-    public Boolean visit(final LongLiteralExpr n, final Visitable arg) {
-        final LongLiteralExpr n2 = (LongLiteralExpr) arg;
-        if (!objEquals(n.getValue(), n2.getValue()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
+    private long[] fingerprints(List<? extends Node> block, StructuralHashes hashes) {
+        var cache = hashes == leftHashes ? leftFingerprints : rightFingerprints;
+        var fingerprints = cache.get(block);
+        if (fingerprints == null && !cache.containsKey(block)) {
+            fingerprints = computeFingerprints(block, hashes);
+            cache.put(block, fingerprints);
+        }
+        return fingerprints;
     }
 
-    @Override
-    public Boolean visit(final CharLiteralExpr n, final Visitable arg) {
-        final CharLiteralExpr n2 = (CharLiteralExpr) arg;
-        if (!objEquals(n.getValue(), n2.getValue()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
+    private long[] sortedShapes(List<? extends Node> block, StructuralHashes hashes) {
+        var cache = hashes == leftHashes ? leftShapes : rightShapes;
+        var shapes = cache.get(block);
+        if (shapes == null && !cache.containsKey(block)) {
+            shapes = computeSortedShapes(block, hashes);
+            cache.put(block, shapes);
+        }
+        return shapes;
     }
 
-    @Override
-    public Boolean visit(final DoubleLiteralExpr n, final Visitable arg) {
-        final DoubleLiteralExpr n2 = (DoubleLiteralExpr) arg;
-        if (!objEquals(n.getValue(), n2.getValue()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
+    private long[] computeSortedShapes(List<? extends Node> block, StructuralHashes hashes) {
+        var shapes = new long[block.size()];
+        for (int i = 0; i < block.size(); i++) {
+            var ordinal = hashes.ordinalOf(block.get(i));
+            if (ordinal == NodeOrdinals.UNKNOWN) {
+                return null;
+            }
+            shapes[i] = hashes.shape(ordinal);
+        }
+        Arrays.sort(shapes);
+        return shapes;
+    }
+
+    // size of the multiset intersection of two sorted arrays
+    private int commonCount(long[] sorted1, long[] sorted2) {
+        int common = 0;
+        for (int i = 0, j = 0; i < sorted1.length && j < sorted2.length; ) {
+            if (sorted1[i] == sorted2[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (sorted1[i] < sorted2[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return common;
     }
 
-    @Override
-    public Boolean visit(final BooleanLiteralExpr n, final Visitable arg) {
-        final BooleanLiteralExpr n2 = (BooleanLiteralExpr) arg;
-        if (!objEquals(n.isValue(), n2.isValue()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
+    private long[] computeFingerprints(List<? extends Node> block, StructuralHashes hashes) {
+        var fingerprints = new long[block.size()];
+        for (int i = 0; i < block.size(); i++) {
+            var ordinal = hashes.ordinalOf(block.get(i));
+            if (ordinal == NodeOrdinals.UNKNOWN) {
+                return null;
+            }
+            fingerprints[i] = hashes.hash(ordinal);
+        }
+        return fingerprints;
     }
 
-    @Override
-    public Boolean visit(final NullLiteralExpr n, final Visitable arg) {
-        final NullLiteralExpr n2 = (NullLiteralExpr) arg;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
+    private NodeList<Statement> bodyStatements(MethodDeclaration method) {
+        return method.getBody().map(BlockStmt::getStatements).orElse(EMPTY_BODY);
     }
 
-    @Override
-    public Boolean visit(final MethodCallExpr n, final Visitable arg) {
-        final MethodCallExpr n2 = (MethodCallExpr) arg;
-        if (!nodesEquals(n.getArguments(), n2.getArguments()))
-            return false;
-
-        if (!nodeEquals(n.getScope(), n2.getScope()))
-            return false;
-        if (!nodesEquals(n.getTypeArguments(), n2.getTypeArguments()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
+    private int bodySize(MethodDeclaration method) {
+        return bodyStatements(method).size();
     }
 
-    @Override
-    public Boolean visit(final NameExpr n, final Visitable arg) {
-        final NameExpr n2 = (NameExpr) arg;
-
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
+    // Ukkonen's cut-off: only cells within maxDistance of the diagonal can stay within maxDistance,
+    // anything above it is reported as maxDistance + 1
+    private int levenstainDistance(List<? extends Node> block1, List<? extends Node> block2, int maxDistance) {
+        var outside = maxDistance + 1;
+        if (Math.abs(block1.size() - block2.size()) > maxDistance) {
+            return outside;
+        }
 
-    @Override
-    public Boolean visit(final ObjectCreationExpr n, final Visitable arg) {
-        final ObjectCreationExpr n2 = (ObjectCreationExpr) arg;
-        if (!nodesEquals(n.getAnonymousClassBody(), n2.getAnonymousClassBody()))
-            return false;
-        if (!nodesEquals(n.getArguments(), n2.getArguments()))
-            return false;
-        if (!nodeEquals(n.getScope(), n2.getScope()))
-            return false;
-        if (!nodeEquals(n.getType(), n2.getType()))
-            return false;
-        if (!nodesEquals(n.getTypeArguments(), n2.getTypeArguments()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
+        int[] Di_1 = new int[block2.size() + 1];
+        int[] Di = new int[block2.size() + 1];
 
-    @Override
-    public Boolean visit(final Name n, final Visitable arg) {
-        return true;
-    }
+        for (int j = 0; j <= block2.size(); j++) {
+            Di[j] = Math.min(j, outside);
+        }
 
-    @Override
-    public Boolean visit(final SimpleName n, final Visitable arg) {
-        return true;
-    }
+        for (int i = 1; i <= block1.size(); i++) {
+            int[] swap = Di_1;
+            Di_1 = Di;
+            Di = swap;
+
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(block2.size(), i + maxDistance);
+            Di[0] = Math.min(i, outside);
+            Di[from - 1] = from == 1 ? Di[0] : outside;
+            int rowMin = Di[from - 1];
+            for (int j = from; j <= to; j++) {
+                int cost = nodeEquals(block1.get(i - 1), block2.get(j - 1)) ? 0 : 1;
+                Di[j] = Math.min(outside, min(
+                        Di_1[j] + 1,
+                        Di[j - 1] + 1,
+                        Di_1[j - 1] + cost
+                ));
+                rowMin = Math.min(rowMin, Di[j]);
+            }
+            if (to < block2.size()) {
+                Di[to + 1] = outside;
+            }
+            if (rowMin > maxDistance) {
+                return outside;
+            }
+        }
 
-    @Override
-    public Boolean visit(final ThisExpr n, final Visitable arg) {
-        final ThisExpr n2 = (ThisExpr) arg;
-        if (!nodeEquals(n.getTypeName(), n2.getTypeName()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
+        return Di[block2.size()];
     }
 
-    @Override
-    public Boolean visit(final SuperExpr n, final Visitable arg) {
-        final SuperExpr n2 = (SuperExpr) arg;
-        if (!nodeEquals(n.getTypeName(), n2.getTypeName()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
+    private int min(int n1, int n2, int n3) {
+        return Math.min(Math.min(n1, n2), n3);
     }
 
-    @Override
-    public Boolean visit(final UnaryExpr n, final Visitable arg) {
-        final UnaryExpr n2 = (UnaryExpr) arg;
-        if (!nodeEquals(n.getExpression(), n2.getExpression()))
-            return false;
-        if (!objEquals(n.getOperator(), n2.getOperator()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final VariableDeclarationExpr n, final Visitable arg) {
-        final VariableDeclarationExpr n2 = (VariableDeclarationExpr) arg;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodesEquals(n.getModifiers(), n2.getModifiers()))
-            return false;
-        if (!nodesEquals(n.getVariables(), n2.getVariables()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final MarkerAnnotationExpr n, final Visitable arg) {
-        final MarkerAnnotationExpr n2 = (MarkerAnnotationExpr) arg;
-
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final SingleMemberAnnotationExpr n, final Visitable arg) {
-        final SingleMemberAnnotationExpr n2 = (SingleMemberAnnotationExpr) arg;
-        if (!nodeEquals(n.getMemberValue(), n2.getMemberValue()))
-            return false;
-
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final NormalAnnotationExpr n, final Visitable arg) {
-        final NormalAnnotationExpr n2 = (NormalAnnotationExpr) arg;
-        if (!nodesEquals(n.getPairs(), n2.getPairs()))
-            return false;
-
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final MemberValuePair n, final Visitable arg) {
-        final MemberValuePair n2 = (MemberValuePair) arg;
-
-        if (!nodeEquals(n.getValue(), n2.getValue()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final ExplicitConstructorInvocationStmt n, final Visitable arg) {
-        final ExplicitConstructorInvocationStmt n2 = (ExplicitConstructorInvocationStmt) arg;
-        if (!nodesEquals(n.getArguments(), n2.getArguments()))
-            return false;
-        if (!nodeEquals(n.getExpression(), n2.getExpression()))
-            return false;
-        if (!objEquals(n.isThis(), n2.isThis()))
-            return false;
-        if (!nodesEquals(n.getTypeArguments(), n2.getTypeArguments()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final LocalClassDeclarationStmt n, final Visitable arg) {
-        final LocalClassDeclarationStmt n2 = (LocalClassDeclarationStmt) arg;
-        if (!nodeEquals(n.getClassDeclaration(), n2.getClassDeclaration()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final LocalRecordDeclarationStmt n, final Visitable arg) {
-        final LocalRecordDeclarationStmt n2 = (LocalRecordDeclarationStmt) arg;
-        if (!nodeEquals(n.getRecordDeclaration(), n2.getRecordDeclaration()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final AssertStmt n, final Visitable arg) {
-        final AssertStmt n2 = (AssertStmt) arg;
-        if (!nodeEquals(n.getCheck(), n2.getCheck()))
-            return false;
-        if (!nodeEquals(n.getMessage(), n2.getMessage()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final BlockStmt n, final Visitable arg) {
-        final BlockStmt n2 = (BlockStmt) arg;
-        if (!nodesEquals(n.getStatements(), n2.getStatements()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final LabeledStmt n, final Visitable arg) {
-        final LabeledStmt n2 = (LabeledStmt) arg;
-        if (!nodeEquals(n.getLabel(), n2.getLabel()))
-            return false;
-        if (!nodeEquals(n.getStatement(), n2.getStatement()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final EmptyStmt n, final Visitable arg) {
-        final EmptyStmt n2 = (EmptyStmt) arg;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final ExpressionStmt n, final Visitable arg) {
-        final ExpressionStmt n2 = (ExpressionStmt) arg;
-        if (!nodeEquals(n.getExpression(), n2.getExpression()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final SwitchStmt n, final Visitable arg) {
-        final SwitchStmt n2 = (SwitchStmt) arg;
-        if (!nodesEquals(n.getEntries(), n2.getEntries()))
-            return false;
-        if (!nodeEquals(n.getSelector(), n2.getSelector()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final SwitchEntry n, final Visitable arg) {
-        final SwitchEntry n2 = (SwitchEntry) arg;
-        if (!nodesEquals(n.getLabels(), n2.getLabels()))
-            return false;
-        if (!nodesEquals(n.getStatements(), n2.getStatements()))
-            return false;
-        if (!objEquals(n.getType(), n2.getType()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final BreakStmt n, final Visitable arg) {
-        final BreakStmt n2 = (BreakStmt) arg;
-        if (!nodeEquals(n.getLabel(), n2.getLabel()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final ReturnStmt n, final Visitable arg) {
-        final ReturnStmt n2 = (ReturnStmt) arg;
-        if (!nodeEquals(n.getExpression(), n2.getExpression()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final IfStmt n, final Visitable arg) {
-        final IfStmt n2 = (IfStmt) arg;
-        if (!nodeEquals(n.getCondition(), n2.getCondition()))
-            return false;
-        if (!nodeEquals(n.getElseStmt(), n2.getElseStmt()))
-            return false;
-        if (!nodeEquals(n.getThenStmt(), n2.getThenStmt()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final WhileStmt n, final Visitable arg) {
-        final WhileStmt n2 = (WhileStmt) arg;
-        if (!nodeEquals(n.getBody(), n2.getBody()))
-            return false;
-        if (!nodeEquals(n.getCondition(), n2.getCondition()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final ContinueStmt n, final Visitable arg) {
-        final ContinueStmt n2 = (ContinueStmt) arg;
-        if (!nodeEquals(n.getLabel(), n2.getLabel()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final DoStmt n, final Visitable arg) {
-        final DoStmt n2 = (DoStmt) arg;
-        if (!nodeEquals(n.getBody(), n2.getBody()))
-            return false;
-        if (!nodeEquals(n.getCondition(), n2.getCondition()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final ForEachStmt n, final Visitable arg) {
-        final ForEachStmt n2 = (ForEachStmt) arg;
-        if (!nodeEquals(n.getBody(), n2.getBody()))
-            return false;
-        if (!nodeEquals(n.getIterable(), n2.getIterable()))
-            return false;
-        if (!nodeEquals(n.getVariable(), n2.getVariable()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final ForStmt n, final Visitable arg) {
-        final ForStmt n2 = (ForStmt) arg;
-        if (!nodeEquals(n.getBody(), n2.getBody()))
-            return false;
-        if (!nodeEquals(n.getCompare(), n2.getCompare()))
-            return false;
-        if (!nodesEquals(n.getInitialization(), n2.getInitialization()))
-            return false;
-        if (!nodesEquals(n.getUpdate(), n2.getUpdate()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final ThrowStmt n, final Visitable arg) {
-        final ThrowStmt n2 = (ThrowStmt) arg;
-        if (!nodeEquals(n.getExpression(), n2.getExpression()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final SynchronizedStmt n, final Visitable arg) {
-        final SynchronizedStmt n2 = (SynchronizedStmt) arg;
-        if (!nodeEquals(n.getBody(), n2.getBody()))
-            return false;
-        if (!nodeEquals(n.getExpression(), n2.getExpression()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final TryStmt n, final Visitable arg) {
-        final TryStmt n2 = (TryStmt) arg;
-        if (!nodesEquals(n.getCatchClauses(), n2.getCatchClauses()))
-            return false;
-        if (!nodeEquals(n.getFinallyBlock(), n2.getFinallyBlock()))
-            return false;
-        if (!nodesEquals(n.getResources(), n2.getResources()))
-            return false;
-        if (!nodeEquals(n.getTryBlock(), n2.getTryBlock()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final CatchClause n, final Visitable arg) {
-        final CatchClause n2 = (CatchClause) arg;
-        if (!nodeEquals(n.getBody(), n2.getBody()))
-            return false;
-        if (!nodeEquals(n.getParameter(), n2.getParameter()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final LambdaExpr n, final Visitable arg) {
-        final LambdaExpr n2 = (LambdaExpr) arg;
-        if (!nodeEquals(n.getBody(), n2.getBody()))
-            return false;
-        if (!objEquals(n.isEnclosingParameters(), n2.isEnclosingParameters()))
-            return false;
-        if (!nodesEquals(n.getParameters(), n2.getParameters()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final MethodReferenceExpr n, final Visitable arg) {
-        final MethodReferenceExpr n2 = (MethodReferenceExpr) arg;
-        if (!objEquals(n.getIdentifier(), n2.getIdentifier()))
-            return false;
-        if (!nodeEquals(n.getScope(), n2.getScope()))
-            return false;
-        if (!nodesEquals(n.getTypeArguments(), n2.getTypeArguments()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final TypeExpr n, final Visitable arg) {
-        final TypeExpr n2 = (TypeExpr) arg;
-        if (!nodeEquals(n.getType(), n2.getType()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final ImportDeclaration n, final Visitable arg) {
-        final ImportDeclaration n2 = (ImportDeclaration) arg;
-        if (!objEquals(n.isAsterisk(), n2.isAsterisk()))
-            return false;
-        if (!objEquals(n.isStatic(), n2.isStatic()))
-            return false;
-
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(NodeList n, Visitable arg) {
-        return nodesEquals((NodeList<Node>) n, (NodeList<Node>) arg);
-    }
-
-    @Override
-    public Boolean visit(final ModuleDeclaration n, final Visitable arg) {
-        final ModuleDeclaration n2 = (ModuleDeclaration) arg;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodesEquals(n.getDirectives(), n2.getDirectives()))
-            return false;
-        if (!objEquals(n.isOpen(), n2.isOpen()))
-            return false;
-
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final ModuleRequiresDirective n, final Visitable arg) {
-        final ModuleRequiresDirective n2 = (ModuleRequiresDirective) arg;
-        if (!nodesEquals(n.getModifiers(), n2.getModifiers()))
-            return false;
-
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override()
-    public Boolean visit(final ModuleExportsDirective n, final Visitable arg) {
-        final ModuleExportsDirective n2 = (ModuleExportsDirective) arg;
-        if (!nodesEquals(n.getModuleNames(), n2.getModuleNames()))
-            return false;
-
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override()
-    public Boolean visit(final ModuleProvidesDirective n, final Visitable arg) {
-        final ModuleProvidesDirective n2 = (ModuleProvidesDirective) arg;
-
-        if (!nodesEquals(n.getWith(), n2.getWith()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override()
-    public Boolean visit(final ModuleUsesDirective n, final Visitable arg) {
-        final ModuleUsesDirective n2 = (ModuleUsesDirective) arg;
-
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final ModuleOpensDirective n, final Visitable arg) {
-        final ModuleOpensDirective n2 = (ModuleOpensDirective) arg;
-        if (!nodesEquals(n.getModuleNames(), n2.getModuleNames()))
-            return false;
-
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final UnparsableStmt n, final Visitable arg) {
-        final UnparsableStmt n2 = (UnparsableStmt) arg;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final ReceiverParameter n, final Visitable arg) {
-        final ReceiverParameter n2 = (ReceiverParameter) arg;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-
-        if (!nodeEquals(n.getType(), n2.getType()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final VarType n, final Visitable arg) {
-        final VarType n2 = (VarType) arg;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final Modifier n, final Visitable arg) {
-        final Modifier n2 = (Modifier) arg;
-        if (!objEquals(n.getKeyword(), n2.getKeyword()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final SwitchExpr n, final Visitable arg) {
-        final SwitchExpr n2 = (SwitchExpr) arg;
-        if (!nodesEquals(n.getEntries(), n2.getEntries()))
-            return false;
-        if (!nodeEquals(n.getSelector(), n2.getSelector()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final YieldStmt n, final Visitable arg) {
-        final YieldStmt n2 = (YieldStmt) arg;
-        if (!nodeEquals(n.getExpression(), n2.getExpression()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final TextBlockLiteralExpr n, final Visitable arg) {
-        final TextBlockLiteralExpr n2 = (TextBlockLiteralExpr) arg;
-        if (!objEquals(n.getValue(), n2.getValue()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final PatternExpr n, final Visitable arg) {
-        final PatternExpr n2 = (PatternExpr) arg;
-
-        if (!nodeEquals(n.getType(), n2.getType()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final RecordDeclaration n, final Visitable arg) {
-        final RecordDeclaration n2 = (RecordDeclaration) arg;
-        if (!nodesEquals(n.getImplementedTypes(), n2.getImplementedTypes()))
-            return false;
-        if (!nodesEquals(n.getParameters(), n2.getParameters()))
-            return false;
-        if (!nodeEquals(n.getReceiverParameter(), n2.getReceiverParameter()))
-            return false;
-        if (!nodesEquals(n.getTypeParameters(), n2.getTypeParameters()))
-            return false;
-        if (!nodesEquals(n.getMembers(), n2.getMembers()))
-            return false;
-        if (!nodesEquals(n.getModifiers(), n2.getModifiers()))
-            return false;
-
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
-    }
-
-    @Override
-    public Boolean visit(final CompactConstructorDeclaration n, final Visitable arg) {
-        final CompactConstructorDeclaration n2 = (CompactConstructorDeclaration) arg;
-        if (!nodeEquals(n.getBody(), n2.getBody()))
-            return false;
-        if (!nodesEquals(n.getModifiers(), n2.getModifiers()))
-            return false;
-
-        if (!nodesEquals(n.getThrownExceptions(), n2.getThrownExceptions()))
-            return false;
-        if (!nodesEquals(n.getTypeParameters(), n2.getTypeParameters()))
-            return false;
-        if (!nodesEquals(n.getAnnotations(), n2.getAnnotations()))
-            return false;
-        if (!nodeEquals(n.getComment(), n2.getComment()))
-            return false;
-        return true;
+    private boolean isMethodDeclarations(Node el1, Node el2) {
+        return el1.getClass().equals(MethodDeclaration.class) && el2.getClass().equals(MethodDeclaration.class);
     }
 }
@@ -0,0 +1,232 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Myers' O(ND) difference algorithm over fingerprint sequences. Near-identical member or statement
+ * lists differ by a few edits, so they are aligned in close to linear time.
+ */
+public class SequenceDiff {
+
+    public enum HunkType {
+        EQUAL,
+        DELETE,
+        INSERT
+    }
+
+    public static class Hunk {
+
+        private final HunkType type;
+        private final int leftFrom;
+        private final int leftTo;
+        private final int rightFrom;
+        private final int rightTo;
+
+        public Hunk(HunkType type, int leftFrom, int leftTo, int rightFrom, int rightTo) {
+            this.type = type;
+            this.leftFrom = leftFrom;
+            this.leftTo = leftTo;
+            this.rightFrom = rightFrom;
+            this.rightTo = rightTo;
+        }
+
+        public HunkType getType() {
+            return type;
+        }
+
+        public int getLeftFrom() {
+            return leftFrom;
+        }
+
+        public int getLeftTo() {
+            return leftTo;
+        }
+
+        public int getRightFrom() {
+            return rightFrom;
+        }
+
+        public int getRightTo() {
+            return rightTo;
+        }
+
+        @Override
+        public String toString() {
+            return type + " [" + leftFrom + ", " + leftTo + ") -> [" + rightFrom + ", " + rightTo + ")";
+        }
+    }
+
+    public static List<Hunk> align(List<? extends Node> left, List<? extends Node> right) {
+        return diff(fingerprints(left), fingerprints(right));
+    }
+
+    public static List<Hunk> diff(long[] a, long[] b) {
+        return diff(a, b, a.length + b.length);
+    }
+
+    // more than maxEdits edits leave the differing middle as a single DELETE and INSERT
+    public static List<Hunk> diff(long[] a, long[] b, int maxEdits) {
+        var prefix = commonPrefix(a, b);
+        var suffix = commonSuffix(a, b, prefix);
+        var hunks = new HunkBuilder();
+        hunks.add(HunkType.EQUAL, 0, prefix, 0, prefix);
+
+        var trace = forward(a, b, prefix, a.length - suffix, prefix, b.length - suffix, maxEdits);
+        if (trace == null) {
+            hunks.add(HunkType.DELETE, prefix, a.length - suffix, prefix, prefix);
+            hunks.add(HunkType.INSERT, a.length - suffix, a.length - suffix, prefix, b.length - suffix);
+        } else {
+            backtrack(trace, a.length - suffix, b.length - suffix, prefix, hunks);
+        }
+
+        hunks.add(HunkType.EQUAL, a.length - suffix, a.length, b.length - suffix, b.length);
+        return hunks.build();
+    }
+
+    // number of inserts and deletes, or maxEdits + 1 when there are more than maxEdits
+    public static int distance(long[] a, long[] b, int maxEdits) {
+        var prefix = commonPrefix(a, b);
+        var suffix = commonSuffix(a, b, prefix);
+        var n = a.length - suffix - prefix;
+        var m = b.length - suffix - prefix;
+        if (Math.abs(n - m) > maxEdits) {
+            return maxEdits + 1;
+        }
+        var max = Math.min(n + m, maxEdits);
+        var v = new int[2 * max + 3];
+        var offset = max + 1;
+        for (int d = 0; d <= max; d++) {
+            for (int k = -d; k <= d; k += 2) {
+                var x = snake(a, b, prefix, n, m, v, offset, d, k);
+                if (x >= n && x - k >= m) {
+                    return d;
+                }
+            }
+        }
+        return maxEdits + 1;
+    }
+
+    private static List<int[]> forward(long[] a, long[] b, int leftFrom, int leftTo, int rightFrom, int rightTo, int maxEdits) {
+        var n = leftTo - leftFrom;
+        var m = rightTo - rightFrom;
+        var max = Math.min(n + m, maxEdits);
+        var v = new int[2 * max + 3];
+        var offset = max + 1;
+        var trace = new ArrayList<int[]>();
+        for (int d = 0; d <= max; d++) {
+            // diagonals -d - 1 .. d + 1 are all backtracking can look at
+            trace.add(Arrays.copyOfRange(v, offset - d - 1, offset + d + 2));
+            for (int k = -d; k <= d; k += 2) {
+                var x = snake(a, b, leftFrom, n, m, v, offset, d, k);
+                if (x >= n && x - k >= m) {
+                    return trace;
+                }
+            }
+        }
+        return null;
+    }
+
+    // furthest reaching d-path on diagonal k, coordinates are relative to from
+    private static int snake(long[] a, long[] b, int from, int n, int m, int[] v, int offset, int d, int k) {
+        var x = (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1]))
+                ? v[offset + k + 1]
+                : v[offset + k - 1] + 1;
+        var y = x - k;
+        while (x < n && y < m && a[from + x] == b[from + y]) {
+            x++;
+            y++;
+        }
+        v[offset + k] = x;
+        return x;
+    }
+
+    private static void backtrack(List<int[]> trace, int leftTo, int rightTo, int from, HunkBuilder hunks) {
+        var x = leftTo - from;
+        var y = rightTo - from;
+        var reversed = new ArrayList<Hunk>();
+        for (int d = trace.size() - 1; d >= 0; d--) {
+            var v = trace.get(d);
+            var offset = d + 1;
+            var k = x - y;
+            int previousK;
+            if (d == 0) {
+                previousK = k;
+            } else {
+                previousK = (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) ? k + 1 : k - 1;
+            }
+            var previousX = d == 0 ? 0 : v[offset + previousK];
+            var previousY = previousX - previousK;
+            var snakeStart = d == 0 ? 0 : (previousK == k + 1 ? previousX : previousX + 1);
+            if (x > snakeStart) {
+                var length = x - snakeStart;
+                reversed.add(new Hunk(HunkType.EQUAL, from + x - length, from + x, from + y - length, from + y));
+            }
+            if (d > 0) {
+                if (previousK == k + 1) {
+                    reversed.add(new Hunk(HunkType.INSERT, from + previousX, from + previousX, from + previousY, from + previousY + 1));
+                } else {
+                    reversed.add(new Hunk(HunkType.DELETE, from + previousX, from + previousX + 1, from + previousY, from + previousY));
+                }
+            }
+            x = previousX;
+            y = previousY;
+        }
+        Collections.reverse(reversed);
+        reversed.forEach(hunk -> hunks.add(hunk.type, hunk.leftFrom, hunk.leftTo, hunk.rightFrom, hunk.rightTo));
+    }
+
+    private static int commonPrefix(long[] a, long[] b) {
+        var prefix = 0;
+        while (prefix < a.length && prefix < b.length && a[prefix] == b[prefix]) {
+            prefix++;
+        }
+        return prefix;
+    }
+
+    private static int commonSuffix(long[] a, long[] b, int prefix) {
+        var suffix = 0;
+        while (suffix < a.length - prefix && suffix < b.length - prefix
+                && a[a.length - 1 - suffix] == b[b.length - 1 - suffix]) {
+            suffix++;
+        }
+        return suffix;
+    }
+
+    private static long[] fingerprints(List<? extends Node> nodes) {
+        var fingerprints = new long[nodes.size()];
+        for (int i = 0; i < nodes.size(); i++) {
+            fingerprints[i] = new StructuralHashes(nodes.get(i)).hash(0);
+        }
+        return fingerprints;
+    }
+
+    // merges adjacent hunks of the same type and drops empty ones
+    private static class HunkBuilder {
+
+        private final List<Hunk> hunks = new ArrayList<>();
+
+        void add(HunkType type, int leftFrom, int leftTo, int rightFrom, int rightTo) {
+            if (leftFrom == leftTo && rightFrom == rightTo) {
+                return;
+            }
+            if (!hunks.isEmpty()) {
+                var last = hunks.get(hunks.size() - 1);
+                if (last.type == type && last.leftTo == leftFrom && last.rightTo == rightFrom) {
+                    hunks.set(hunks.size() - 1, new Hunk(type, last.leftFrom, leftTo, last.rightFrom, rightTo));
+                    return;
+                }
+            }
+            hunks.add(new Hunk(type, leftFrom, leftTo, rightFrom, rightTo));
+        }
+
+        List<Hunk> build() {
+            return hunks;
+        }
+    }
+
+}
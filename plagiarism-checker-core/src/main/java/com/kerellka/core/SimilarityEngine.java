@@ -0,0 +1,34 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.CompilationUnit;
+
+/**
+ * A way of scoring two units. Everything that depends on a single unit (hashing, tokens, fingerprints)
+ * belongs in {@link #prepare}, so a unit compared N times is prepared once. Prepared forms are read only
+ * and may be scored from several threads at once.
+ * <p>
+ * {@link #upperBound} lets a best-match search skip pairs that can not beat the matches it already has;
+ * it must never be below the percentage {@link #score} gives, and engines without a cheap bound keep 100.
+ * <p>
+ * {@link #isRightCoverageExact} tells whether the right coverage of a score is what scoring the other way round
+ * would give as percentage; when it is not, {@link PlagiarismChecker#scoreBothWays} runs the reverse comparison.
+ * <p>
+ * Engines are found with {@link java.util.ServiceLoader}, see {@link SimilarityEngines}.
+ */
+public interface SimilarityEngine<P> {
+
+    String getName();
+
+    P prepare(CompilationUnit unit);
+
+    ComparisonResult score(P left, P right, ComparisonOptions options);
+
+    default long upperBound(P left, P right) {
+        return 100;
+    }
+
+    default boolean isRightCoverageExact() {
+        return false;
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.kerellka.core;
+
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Registry of the engines listed in META-INF/services/com.kerellka.core.SimilarityEngine on the classpath.
+ */
+public class SimilarityEngines {
+
+    public static final String DEFAULT_ENGINE = VisitorEngine.NAME;
+
+    private static final Map<String, SimilarityEngine<?>> engines = loader()
+            .stream()
+            .map(ServiceLoader.Provider::get)
+            .collect(Collectors.toMap(SimilarityEngine::getName, engine -> engine, (first, second) -> first, TreeMap::new));
+
+    // the service type can only be named raw, every engine loaded is some SimilarityEngine<?>
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static ServiceLoader<SimilarityEngine<?>> loader() {
+        return (ServiceLoader) ServiceLoader.load(SimilarityEngine.class);
+    }
+
+    public static SimilarityEngine<?> get(String name) {
+        var engine = engines.get(name);
+        if (engine == null) {
+            throw new IllegalArgumentException("Unknown similarity engine " + name + ", available: " + names());
+        }
+        return engine;
+    }
+
+    public static List<String> names() {
+        return List.copyOf(engines.keySet());
+    }
+
+}
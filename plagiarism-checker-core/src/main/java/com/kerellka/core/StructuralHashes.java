@@ -0,0 +1,202 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.comments.Comment;
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.kerellka.utils.NodeOrdinals;
+
+import java.util.BitSet;
+
+/**
+ * Bottom-up 64-bit hashes of every subtree, following the rules of PlagiarismEqualsVisitor.
+ * <p>
+ * {@code hash} covers everything the visitor compares, with node lists and the operands of commutative chains
+ * hashed as multisets, so equal hashes mean the visitor would find the subtrees equal.
+ * Node lists are matched by "every element has a twin", so unequal hashes prove nothing. {@code shape} covers
+ * only what has to match exactly (node class, attributes, presence of children, comment kinds), so unequal
+ * shapes mean the visitor would reject the pair.
+ */
+public class StructuralHashes {
+
+    private static final long ABSENT = 0x6a09e667f3bcc909L;
+    private static final long PRESENT = 0xbb67ae8584caa73bL;
+
+    private static final ClassValue<Long> kindHashes = new ClassValue<>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            return stringHash(type.getName());
+        }
+    };
+
+    private final NodeOrdinals ordinals;
+    private final long[] hashes;
+    private final long[] shapes;
+    private final BitSet listElements;
+    // multiset sums of the operands of the commutative chain below each commutative BinaryExpr
+    private long[] chainHashes;
+    private long[] chainShapes;
+
+    public StructuralHashes(Node root) {
+        this(new NodeOrdinals(root));
+    }
+
+    public StructuralHashes(NodeOrdinals ordinals) {
+        this.ordinals = ordinals;
+        this.hashes = new long[ordinals.size()];
+        this.shapes = new long[ordinals.size()];
+        this.listElements = new BitSet(ordinals.size());
+        markListElements();
+        for (int i = ordinals.size() - 1; i >= 0; i--) {
+            hashNode(i);
+        }
+    }
+
+    public NodeOrdinals getOrdinals() {
+        return ordinals;
+    }
+
+    public int ordinalOf(Node node) {
+        return ordinals.ordinalOf(node);
+    }
+
+    public long hash(int ordinal) {
+        return hashes[ordinal];
+    }
+
+    public long shape(int ordinal) {
+        return shapes[ordinal];
+    }
+
+    // elements of node lists the visitor reaches from the root, i.e. the nodes PlagiarismStats counts
+    public int nextListElement(int fromOrdinal) {
+        return listElements.nextSetBit(fromOrdinal);
+    }
+
+    public boolean isListElement(int ordinal) {
+        return listElements.get(ordinal);
+    }
+
+    private void markListElements() {
+        var reachable = new BitSet(ordinals.size());
+        reachable.set(0);
+        for (int i = 0; i < ordinals.size(); i++) {
+            if (!reachable.get(i)) {
+                continue;
+            }
+            var node = ordinals.nodeAt(i);
+            for (ComparisonRules.Property property : ComparisonRules.comparedProperties(node)) {
+                if (property.isNodeList()) {
+                    var list = property.nodeListOf(node);
+                    if (list != null) {
+                        for (Node element : list) {
+                            var ordinal = ordinals.ordinalOf(element);
+                            reachable.set(ordinal);
+                            listElements.set(ordinal);
+                        }
+                    }
+                } else if (property.isNode()) {
+                    var child = property.nodeOf(node);
+                    if (child != null) {
+                        reachable.set(ordinals.ordinalOf(child));
+                    }
+                }
+            }
+        }
+    }
+
+    private void hashNode(int ordinal) {
+        var node = ordinals.nodeAt(ordinal);
+        long hash = combine(kindHash(node), commentHash(node));
+        long shape = hash;
+
+        if (node instanceof BinaryExpr && ComparisonRules.isCommutative(((BinaryExpr) node).getOperator())) {
+            var binaryExpr = (BinaryExpr) node;
+            if (chainHashes == null) {
+                chainHashes = new long[ordinals.size()];
+                chainShapes = new long[ordinals.size()];
+            }
+            addChainOperand(ordinal, binaryExpr.getLeft(), binaryExpr.getOperator());
+            addChainOperand(ordinal, binaryExpr.getRight(), binaryExpr.getOperator());
+            long operator = valueHash(binaryExpr.getOperator());
+            hashes[ordinal] = combine(combine(hash, operator), chainHashes[ordinal]);
+            shapes[ordinal] = combine(combine(shape, operator), chainShapes[ordinal]);
+            return;
+        }
+
+        for (ComparisonRules.Property property : ComparisonRules.comparedProperties(node)) {
+            var value = property.valueOf(node);
+            if (value == null) {
+                hash = combine(hash, ABSENT);
+                shape = combine(shape, ABSENT);
+            } else if (property.isNodeList()) {
+                long elements = 0;
+                for (Node element : property.nodeListOf(node)) {
+                    elements += mix(hashes[ordinals.ordinalOf(element)]);
+                }
+                hash = combine(hash, elements);
+                shape = combine(shape, PRESENT);
+            } else if (property.isNode()) {
+                var child = ordinals.ordinalOf((Node) value);
+                hash = combine(hash, hashes[child]);
+                shape = combine(shape, shapes[child]);
+            } else {
+                long attribute = valueHash(value);
+                hash = combine(hash, attribute);
+                shape = combine(shape, attribute);
+            }
+        }
+        hashes[ordinal] = hash;
+        shapes[ordinal] = shape;
+    }
+
+    // children are hashed first, so a link of the chain already holds the sums of the operands below it
+    private void addChainOperand(int ordinal, Node operand, BinaryExpr.Operator operator) {
+        var child = ordinals.ordinalOf(operand);
+        if (ComparisonRules.continuesChain(operand, operator)) {
+            chainHashes[ordinal] += chainHashes[child];
+            chainShapes[ordinal] += chainShapes[child];
+        } else {
+            chainHashes[ordinal] += mix(hashes[child]);
+            chainShapes[ordinal] += mix(shapes[child]);
+        }
+    }
+
+    private static long commentHash(Node node) {
+        long hash = node.getComment().map(StructuralHashes::kindHash).orElse(ABSENT);
+        for (Comment orphan : node.getOrphanComments()) {
+            hash = combine(hash, kindHash(orphan));
+        }
+        return hash;
+    }
+
+    static long kindHash(Node node) {
+        return kindHashes.get(node.getClass());
+    }
+
+    static long valueHash(Object value) {
+        if (value instanceof Enum) {
+            return stringHash(((Enum<?>) value).name());
+        }
+        return stringHash(String.valueOf(value));
+    }
+
+    static long combine(long hash, long value) {
+        return mix(hash * 0x9E3779B97F4A7C15L + value);
+    }
+
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    static long stringHash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+}
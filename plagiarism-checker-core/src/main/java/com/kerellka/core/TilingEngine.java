@@ -0,0 +1,35 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.CompilationUnit;
+
+public class TilingEngine implements SimilarityEngine<long[]> {
+
+    public static final String NAME = "tiling";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public long[] prepare(CompilationUnit unit) {
+        return Winnowing.tokens(unit);
+    }
+
+    @Override
+    public ComparisonResult score(long[] left, long[] right, ComparisonOptions options) {
+        return GreedyStringTiling.compare(left, right);
+    }
+
+    // tiles cover as many tokens on the right as on the left
+    @Override
+    public long upperBound(long[] left, long[] right) {
+        return left.length == 0 ? 0 : 100L * Math.min(left.length, right.length) / left.length;
+    }
+
+    @Override
+    public boolean isRightCoverageExact() {
+        return true;
+    }
+
+}
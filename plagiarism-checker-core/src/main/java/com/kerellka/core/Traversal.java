@@ -0,0 +1,11 @@
+package com.kerellka.core;
+
+public enum Traversal {
+
+    // one Java call per compared node, the stack grows with the depth of the trees
+    RECURSIVE,
+
+    // the same comparisons driven from an explicit stack, for trees deeper than the thread stack allows
+    ITERATIVE
+
+}
@@ -0,0 +1,283 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.Node;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Zhang-Shasha tree edit distance with unit costs. Nodes are labelled the way {@link Winnowing}
+ * tokenizes them, so names and comments are left out and literals only keep their kind.
+ * <p>
+ * The exact algorithm needs two n1 x n2 int tables. When that would exceed maxNodes x maxNodes
+ * the trees are decomposed instead: the roots are compared by label and their children are paired
+ * through {@link MemberAssignment}, each pair scored recursively. This is an upper bound of the
+ * exact distance, with memory bounded by the cap.
+ */
+public class TreeEditDistance {
+
+    public static final int DEFAULT_MAX_NODES = 2000;
+
+    // children of one node that are scored against each child of the other
+    private static final int DECOMPOSITION_CANDIDATES = 8;
+    private static final int ASSIGNMENT_SOLVER_LIMIT = 64;
+
+    public static long countPlagiarismPercentage(Node left, Node right, int maxNodes) {
+        var size = Math.max(size(left), size(right));
+        return (long) (100 * (1 - (double) distance(left, right, maxNodes) / size));
+    }
+
+    // every node of the larger tree that is not mapped onto a node with the same label costs at least one
+    // edit, and at most sum(min(count in a, count in b)) nodes can be mapped that way
+    public static long upperBound(Node left, Node right) {
+        var leftLabels = labelCounts(left);
+        var rightLabels = labelCounts(right);
+        long sameLabels = 0;
+        for (var entry : leftLabels.entrySet()) {
+            sameLabels += Math.min(entry.getValue(), rightLabels.getOrDefault(entry.getKey(), 0));
+        }
+        var size = Math.max(size(left), size(right));
+        return (long) (100 * ((double) sameLabels / size));
+    }
+
+    public static int distance(Node a, Node b, int maxNodes) {
+        var sizeA = size(a);
+        var sizeB = size(b);
+        if ((long) sizeA * sizeB <= (long) maxNodes * maxNodes) {
+            return zhangShasha(new PostorderTree(a, sizeA), new PostorderTree(b, sizeB));
+        }
+        return decomposed(a, b, maxNodes);
+    }
+
+    private static int decomposed(Node a, Node b, int maxNodes) {
+        var childrenA = children(a);
+        var childrenB = children(b);
+        var sizesA = childrenA.stream().mapToInt(TreeEditDistance::size).toArray();
+        var sizesB = childrenB.stream().mapToInt(TreeEditDistance::size).toArray();
+        var labelsB = childrenB.stream().mapToLong(Winnowing::token).toArray();
+
+        // identical subtrees cost nothing, so they are paired first and in order
+        var identical = new int[childrenA.size()];
+        Arrays.fill(identical, MemberAssignment.UNASSIGNED);
+        var pairedB = new boolean[childrenB.size()];
+        var unpairedB = new HashMap<Long, ArrayDeque<Integer>>();
+        for (int j = 0; j < childrenB.size(); j++) {
+            unpairedB.computeIfAbsent(fingerprint(childrenB.get(j)), fingerprint -> new ArrayDeque<>()).add(j);
+        }
+        for (int i = 0; i < childrenA.size(); i++) {
+            var twins = unpairedB.get(fingerprint(childrenA.get(i)));
+            if (twins != null && !twins.isEmpty()) {
+                identical[i] = twins.poll();
+                pairedB[identical[i]] = true;
+            }
+        }
+
+        var assignment = new MemberAssignment(childrenA.size(), childrenB.size());
+        var costs = new int[childrenA.size()][];
+        for (int i = 0; i < childrenA.size(); i++) {
+            if (identical[i] != MemberAssignment.UNASSIGNED) {
+                continue;
+            }
+            var position = i;
+            var label = Winnowing.token(childrenA.get(i));
+            var sizeA = sizesA[i];
+            var candidates = IntStream.range(0, childrenB.size())
+                    .filter(j -> !pairedB[j] && labelsB[j] == label)
+                    .boxed()
+                    .sorted(Comparator.<Integer>comparingInt(j -> Math.abs(sizesB[j] - sizeA))
+                            .thenComparingInt(j -> Math.abs(j - position))
+                            .thenComparingInt(j -> j))
+                    .limit(DECOMPOSITION_CANDIDATES)
+                    .collect(Collectors.toList());
+            costs[i] = new int[childrenB.size()];
+            for (var j : candidates) {
+                // deleting one subtree and inserting the other is always possible, so that is the ceiling
+                var cost = distance(childrenA.get(i), childrenB.get(j), maxNodes);
+                if (cost < sizeA + sizesB[j]) {
+                    costs[i][j] = cost;
+                    assignment.addCandidate(i, j, cost);
+                }
+            }
+        }
+
+        var distance = Winnowing.token(a) == Winnowing.token(b) ? 0 : 1;
+        var assigned = assignment.solve(ASSIGNMENT_SOLVER_LIMIT);
+        for (int i = 0; i < childrenA.size(); i++) {
+            if (identical[i] != MemberAssignment.UNASSIGNED) {
+                continue;
+            }
+            if (assigned[i] == MemberAssignment.UNASSIGNED) {
+                distance += sizesA[i];
+            } else {
+                distance += costs[i][assigned[i]];
+                pairedB[assigned[i]] = true;
+            }
+        }
+        for (int j = 0; j < childrenB.size(); j++) {
+            if (!pairedB[j]) {
+                distance += sizesB[j];
+            }
+        }
+        return distance;
+    }
+
+    private static int zhangShasha(PostorderTree a, PostorderTree b) {
+        var n1 = a.labels.length;
+        var n2 = b.labels.length;
+        var treeDistance = new int[n1 * n2];
+        var width = n2 + 1;
+        var forestDistance = new int[(n1 + 1) * width];
+        for (var i : a.keyRoots()) {
+            for (var j : b.keyRoots()) {
+                var li = a.leftmost[i];
+                var lj = b.leftmost[j];
+                var rows = i - li + 1;
+                var columns = j - lj + 1;
+                forestDistance[0] = 0;
+                for (int x = 1; x <= rows; x++) {
+                    forestDistance[x * width] = x;
+                }
+                for (int y = 1; y <= columns; y++) {
+                    forestDistance[y] = y;
+                }
+                for (int x = 1; x <= rows; x++) {
+                    var nodeA = li + x - 1;
+                    for (int y = 1; y <= columns; y++) {
+                        var nodeB = lj + y - 1;
+                        var delete = forestDistance[(x - 1) * width + y] + 1;
+                        var insert = forestDistance[x * width + y - 1] + 1;
+                        int distance;
+                        if (a.leftmost[nodeA] == li && b.leftmost[nodeB] == lj) {
+                            var relabel = forestDistance[(x - 1) * width + y - 1] + (a.labels[nodeA] == b.labels[nodeB] ? 0 : 1);
+                            distance = Math.min(Math.min(delete, insert), relabel);
+                            treeDistance[nodeA * n2 + nodeB] = distance;
+                        } else {
+                            var subtrees = forestDistance[(a.leftmost[nodeA] - li) * width + b.leftmost[nodeB] - lj]
+                                    + treeDistance[nodeA * n2 + nodeB];
+                            distance = Math.min(Math.min(delete, insert), subtrees);
+                        }
+                        forestDistance[x * width + y] = distance;
+                    }
+                }
+            }
+        }
+        return treeDistance[(n1 - 1) * n2 + n2 - 1];
+    }
+
+    private static List<Node> children(Node node) {
+        var children = new ArrayList<Node>();
+        for (var child : node.getChildNodes()) {
+            if (!ComparisonRules.isOpaque(child.getClass())) {
+                children.add(child);
+            }
+        }
+        return children;
+    }
+
+    // equal for subtrees with the same labels in the same shape
+    private static long fingerprint(Node root) {
+        var hash = 0L;
+        var stack = new ArrayDeque<Node>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            var node = stack.pop();
+            var children = children(node);
+            hash = StructuralHashes.combine(StructuralHashes.combine(hash, Winnowing.token(node)), children.size());
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+            }
+        }
+        return hash;
+    }
+
+    private static HashMap<Long, Integer> labelCounts(Node root) {
+        var counts = new HashMap<Long, Integer>();
+        var stack = new ArrayDeque<Node>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            var node = stack.pop();
+            counts.merge(Winnowing.token(node), 1, Integer::sum);
+            for (var child : children(node)) {
+                stack.push(child);
+            }
+        }
+        return counts;
+    }
+
+    static int size(Node root) {
+        var size = 0;
+        var stack = new ArrayDeque<Node>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            var node = stack.pop();
+            size++;
+            for (var child : children(node)) {
+                stack.push(child);
+            }
+        }
+        return size;
+    }
+
+    private static class PostorderTree {
+
+        private final long[] labels;
+        // postorder index of the leftmost leaf under each node
+        private final int[] leftmost;
+
+        PostorderTree(Node root, int size) {
+            labels = new long[size];
+            leftmost = new int[size];
+            var next = 0;
+            var nodes = new ArrayDeque<Node>();
+            var pendingChildren = new ArrayDeque<ArrayDeque<Node>>();
+            var firstLeaf = new ArrayDeque<Integer>();
+            nodes.push(root);
+            pendingChildren.push(new ArrayDeque<>(children(root)));
+            firstLeaf.push(-1);
+            while (!nodes.isEmpty()) {
+                var pending = pendingChildren.peek();
+                if (!pending.isEmpty()) {
+                    var child = pending.poll();
+                    nodes.push(child);
+                    pendingChildren.push(new ArrayDeque<>(children(child)));
+                    firstLeaf.push(-1);
+                    continue;
+                }
+                var node = nodes.pop();
+                pendingChildren.pop();
+                var leaf = firstLeaf.pop();
+                var index = next++;
+                labels[index] = Winnowing.token(node);
+                leftmost[index] = leaf == -1 ? index : leaf;
+                if (!firstLeaf.isEmpty() && firstLeaf.peek() == -1) {
+                    firstLeaf.pop();
+                    firstLeaf.push(leftmost[index]);
+                }
+            }
+        }
+
+        // the highest node for every leftmost leaf, in increasing order
+        int[] keyRoots() {
+            var seen = new boolean[labels.length];
+            var keyRoots = new int[labels.length];
+            var count = 0;
+            for (int i = labels.length - 1; i >= 0; i--) {
+                if (!seen[leftmost[i]]) {
+                    seen[leftmost[i]] = true;
+                    keyRoots[count++] = i;
+                }
+            }
+            var result = Arrays.copyOf(keyRoots, count);
+            Arrays.sort(result);
+            return result;
+        }
+
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.CompilationUnit;
+
+public class TreeEditDistanceEngine implements SimilarityEngine<CompilationUnit> {
+
+    public static final String NAME = "tree-edit-distance";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    // the tables depend on both trees, so there is nothing to do per unit
+    @Override
+    public CompilationUnit prepare(CompilationUnit unit) {
+        return unit;
+    }
+
+    @Override
+    public ComparisonResult score(CompilationUnit left, CompilationUnit right, ComparisonOptions options) {
+        return new ComparisonResult(TreeEditDistance.countPlagiarismPercentage(left, right, TreeEditDistance.DEFAULT_MAX_NODES), false, 0);
+    }
+
+    @Override
+    public long upperBound(CompilationUnit left, CompilationUnit right) {
+        return TreeEditDistance.upperBound(left, right);
+    }
+
+    @Override
+    public boolean isRightCoverageExact() {
+        return true;
+    }
+
+}
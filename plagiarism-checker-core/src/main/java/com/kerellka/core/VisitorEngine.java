@@ -0,0 +1,26 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.CompilationUnit;
+
+// no upper bound: the percentage is over the elements the walk happens to record, and a walk that stops early
+// records few of them, so nothing short of comparing caps it
+public class VisitorEngine implements SimilarityEngine<StructuralHashes> {
+
+    public static final String NAME = "visitor";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public StructuralHashes prepare(CompilationUnit unit) {
+        return new StructuralHashes(unit);
+    }
+
+    @Override
+    public ComparisonResult score(StructuralHashes left, StructuralHashes right, ComparisonOptions options) {
+        return PlagiarismEqualsVisitor.compare(left, right, options);
+    }
+
+}
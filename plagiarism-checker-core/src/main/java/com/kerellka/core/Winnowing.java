@@ -0,0 +1,143 @@
+package com.kerellka.core;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.expr.AssignExpr;
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.github.javaparser.ast.expr.UnaryExpr;
+import com.github.javaparser.ast.stmt.BlockStmt;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * MOSS-style winnowed k-gram fingerprints of a tree. The tree is flattened into a preorder stream
+ * of node kinds, and everything the visitor does not look at (names, comments) is dropped. Literals
+ * are reduced to their kind as well, which makes the fingerprints a little more forgiving than the
+ * visitor, as a prefilter has to be.
+ */
+public class Winnowing {
+
+    public static final int K = 5;
+    public static final int WINDOW = 4;
+
+    private static final long BLOCK_END = StructuralHashes.stringHash("}");
+
+    // sorted distinct winnowed hashes
+    public static long[] fingerprint(Node root) {
+        return winnow(kGrams(tokens(root)));
+    }
+
+    // share of the left fingerprints that also occur in the right ones
+    public static double containment(long[] left, long[] right) {
+        if (left.length == 0) {
+            return right.length == 0 ? 1 : 0;
+        }
+        int common = 0;
+        for (int i = 0, j = 0; i < left.length && j < right.length; ) {
+            if (left[i] == right[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (left[i] < right[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) common / left.length;
+    }
+
+    static long[] tokens(Node root) {
+        var tokens = new long[64];
+        var size = 0;
+        var stack = new ArrayDeque<Object>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            var top = stack.pop();
+            if (!(top instanceof Node)) {
+                tokens = append(tokens, size++, BLOCK_END);
+                continue;
+            }
+            var node = (Node) top;
+            if (ComparisonRules.isOpaque(node.getClass())) {
+                continue;
+            }
+            tokens = append(tokens, size++, token(node));
+            if (node instanceof BlockStmt) {
+                stack.push(BLOCK_END);
+            }
+            var children = node.getChildNodes();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+            }
+        }
+        return Arrays.copyOf(tokens, size);
+    }
+
+    static long token(Node node) {
+        var kind = StructuralHashes.kindHash(node);
+        if (node instanceof BinaryExpr) {
+            return StructuralHashes.combine(kind, StructuralHashes.valueHash(((BinaryExpr) node).getOperator()));
+        }
+        if (node instanceof UnaryExpr) {
+            return StructuralHashes.combine(kind, StructuralHashes.valueHash(((UnaryExpr) node).getOperator()));
+        }
+        if (node instanceof AssignExpr) {
+            return StructuralHashes.combine(kind, StructuralHashes.valueHash(((AssignExpr) node).getOperator()));
+        }
+        return kind;
+    }
+
+    private static long[] append(long[] tokens, int index, long token) {
+        if (index == tokens.length) {
+            tokens = Arrays.copyOf(tokens, tokens.length * 2);
+        }
+        tokens[index] = token;
+        return tokens;
+    }
+
+    static long[] kGrams(long[] tokens) {
+        if (tokens.length < K) {
+            return tokens.length == 0 ? new long[0] : new long[]{hash(tokens, 0, tokens.length)};
+        }
+        var kGrams = new long[tokens.length - K + 1];
+        for (int i = 0; i < kGrams.length; i++) {
+            kGrams[i] = hash(tokens, i, i + K);
+        }
+        return kGrams;
+    }
+
+    private static long hash(long[] tokens, int from, int to) {
+        long hash = K;
+        for (int i = from; i < to; i++) {
+            hash = StructuralHashes.combine(hash, tokens[i]);
+        }
+        return hash;
+    }
+
+    // the minimum of every window of WINDOW k-grams, taking the rightmost one on ties so that
+    // overlapping windows keep picking the same k-gram; a shorter stream is one window
+    static long[] winnow(long[] kGrams) {
+        if (kGrams.length == 0) {
+            return kGrams;
+        }
+        var windows = Math.max(1, kGrams.length - WINDOW + 1);
+        var selected = new long[windows];
+        var size = 0;
+        var previous = -1;
+        for (int start = 0; start < windows; start++) {
+            var minimum = start;
+            for (int i = start + 1; i < Math.min(start + WINDOW, kGrams.length); i++) {
+                if (kGrams[i] <= kGrams[minimum]) {
+                    minimum = i;
+                }
+            }
+            if (minimum != previous) {
+                selected[size++] = kGrams[minimum];
+                previous = minimum;
+            }
+        }
+        return Arrays.stream(selected, 0, size).sorted().distinct().toArray();
+    }
+
+}
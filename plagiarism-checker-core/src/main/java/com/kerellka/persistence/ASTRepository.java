@@ -1,6 +1,7 @@
 package com.kerellka.persistence;
 
 import java.sql.*;
+import java.util.List;
 import java.util.Map;
 
 public class ASTRepository {
@@ -15,6 +16,14 @@ public class ASTRepository {
         Statement statement = connection.createStatement();
         statement.executeUpdate("create table if not exists ast(id int primary key, student_login varchar(100), lab_number int, ast clob, source_code clob)");
         statement.executeUpdate("create unique index if not exists ast_unique on ast (student_login, lab_number);");
+        statement.executeUpdate("create table if not exists ast_minhash(student_login varchar(100), lab_number int, signature clob)");
+        statement.executeUpdate("create unique index if not exists ast_minhash_unique on ast_minhash (student_login, lab_number);");
+        statement.executeUpdate("create table if not exists ast_canonical(student_login varchar(100), lab_number int, ast clob)");
+        statement.executeUpdate("create unique index if not exists ast_canonical_unique on ast_canonical (student_login, lab_number);");
+        statement.executeUpdate("create table if not exists ast_histogram(student_login varchar(100), lab_number int, histogram clob)");
+        statement.executeUpdate("create unique index if not exists ast_histogram_unique on ast_histogram (student_login, lab_number);");
+        statement.executeUpdate("create table if not exists ast_methods(student_login varchar(100), lab_number int, fingerprints clob)");
+        statement.executeUpdate("create unique index if not exists ast_methods_unique on ast_methods (student_login, lab_number);");
     }
 
     public void insertData(String studentLogin, int labNumber, byte[] astRepresentation, byte[] sourceCode) throws SQLException {
@@ -28,20 +37,149 @@ public class ASTRepository {
 
     public void updateData(String studentLogin, int labNumber, byte[] astRepresentation, byte[] sourceCode) throws SQLException {
         PreparedStatement statement = connection.prepareStatement("update ast set ast = ?, source_code = ? where student_login = ? and lab_number = ?");
+        statement.setBytes(1, astRepresentation);
+        statement.setBytes(2, sourceCode);
+        statement.setString(3, studentLogin);
+        statement.setInt(4, labNumber);
+        statement.executeUpdate();
+    }
+
+    public void deleteData(String studentLogin, int labNumber) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement("delete from ast where student_login = ? and lab_number = ?");
+        statement.setString(1, studentLogin);
+        statement.setInt(2, labNumber);
+        statement.executeUpdate();
+        deleteMinHash(studentLogin, labNumber);
+        deleteCanonicalAst(studentLogin, labNumber);
+        deleteHistogram(studentLogin, labNumber);
+        deleteMethodFingerprints(studentLogin, labNumber);
+    }
+
+    public void saveMinHash(String studentLogin, int labNumber, byte[] signature) throws SQLException {
+        deleteMinHash(studentLogin, labNumber);
+        PreparedStatement statement = connection.prepareStatement("insert into ast_minhash (student_login, lab_number, signature) values (?, ?, ?)");
+        statement.setString(1, studentLogin);
+        statement.setInt(2, labNumber);
+        statement.setBytes(3, signature);
+        statement.executeUpdate();
+    }
+
+    private void deleteMinHash(String studentLogin, int labNumber) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement("delete from ast_minhash where student_login = ? and lab_number = ?");
+        statement.setString(1, studentLogin);
+        statement.setInt(2, labNumber);
+        statement.executeUpdate();
+    }
+
+    public Map<String, byte[]> findAllMinHashForLab(int labNumber) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement("select signature, student_login from ast_minhash where lab_number = ?");
+        statement.setInt(1, labNumber);
+        var rs = statement.executeQuery();
+        Map<String, byte[]> signatures = new java.util.HashMap<>();
+        while (rs.next()) {
+            signatures.put(rs.getString("student_login"), rs.getBytes("signature"));
+        }
+        return signatures;
+    }
+
+    public void saveCanonicalAst(String studentLogin, int labNumber, byte[] astRepresentation) throws SQLException {
+        deleteCanonicalAst(studentLogin, labNumber);
+        PreparedStatement statement = connection.prepareStatement("insert into ast_canonical (student_login, lab_number, ast) values (?, ?, ?)");
         statement.setString(1, studentLogin);
         statement.setInt(2, labNumber);
         statement.setBytes(3, astRepresentation);
-        statement.setBytes(4, sourceCode);
         statement.executeUpdate();
     }
 
-    public void deleteData(String studentLogin, int labNumber) throws SQLException {
-        PreparedStatement statement = connection.prepareStatement("delete from ast where student_login = ? and lab_number = ?");
+    private void deleteCanonicalAst(String studentLogin, int labNumber) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement("delete from ast_canonical where student_login = ? and lab_number = ?");
+        statement.setString(1, studentLogin);
+        statement.setInt(2, labNumber);
+        statement.executeUpdate();
+    }
+
+    public byte[] findCanonicalAst(String studentLogin, int labNumber) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement("select ast from ast_canonical where lab_number = ? and student_login = ?");
+        statement.setInt(1, labNumber);
+        statement.setString(2, studentLogin);
+        var rs = statement.executeQuery();
+        return rs.next() ? rs.getBytes("ast") : null;
+    }
+
+    public void saveHistogram(String studentLogin, int labNumber, byte[] histogram) throws SQLException {
+        deleteHistogram(studentLogin, labNumber);
+        PreparedStatement statement = connection.prepareStatement("insert into ast_histogram (student_login, lab_number, histogram) values (?, ?, ?)");
         statement.setString(1, studentLogin);
         statement.setInt(2, labNumber);
+        statement.setBytes(3, histogram);
         statement.executeUpdate();
     }
 
+    private void deleteHistogram(String studentLogin, int labNumber) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement("delete from ast_histogram where student_login = ? and lab_number = ?");
+        statement.setString(1, studentLogin);
+        statement.setInt(2, labNumber);
+        statement.executeUpdate();
+    }
+
+    public Map<String, byte[]> findAllHistogramsForLab(int labNumber) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement("select histogram, student_login from ast_histogram where lab_number = ?");
+        statement.setInt(1, labNumber);
+        var rs = statement.executeQuery();
+        Map<String, byte[]> histograms = new java.util.HashMap<>();
+        while (rs.next()) {
+            histograms.put(rs.getString("student_login"), rs.getBytes("histogram"));
+        }
+        return histograms;
+    }
+
+    public void saveMethodFingerprints(String studentLogin, int labNumber, byte[] fingerprints) throws SQLException {
+        deleteMethodFingerprints(studentLogin, labNumber);
+        PreparedStatement statement = connection.prepareStatement("insert into ast_methods (student_login, lab_number, fingerprints) values (?, ?, ?)");
+        statement.setString(1, studentLogin);
+        statement.setInt(2, labNumber);
+        statement.setBytes(3, fingerprints);
+        statement.executeUpdate();
+    }
+
+    private void deleteMethodFingerprints(String studentLogin, int labNumber) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement("delete from ast_methods where student_login = ? and lab_number = ?");
+        statement.setString(1, studentLogin);
+        statement.setInt(2, labNumber);
+        statement.executeUpdate();
+    }
+
+    public Map<String, byte[]> findAllMethodFingerprintsForLab(int labNumber) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement("select fingerprints, student_login from ast_methods where lab_number = ?");
+        statement.setInt(1, labNumber);
+        var rs = statement.executeQuery();
+        Map<String, byte[]> fingerprints = new java.util.HashMap<>();
+        while (rs.next()) {
+            fingerprints.put(rs.getString("student_login"), rs.getBytes("fingerprints"));
+        }
+        return fingerprints;
+    }
+
+    public List<String> findAllStudentLoginsForLab(int labNumber) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement("select student_login from ast where lab_number = ? order by student_login");
+        statement.setInt(1, labNumber);
+        var rs = statement.executeQuery();
+        List<String> logins = new java.util.ArrayList<>();
+        while (rs.next()) {
+            logins.add(rs.getString("student_login"));
+        }
+        return logins;
+    }
+
+    public byte[] findAst(String studentLogin, int labNumber) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement("select ast from ast where lab_number = ? and student_login = ?");
+        statement.setInt(1, labNumber);
+        statement.setString(2, studentLogin);
+        var rs = statement.executeQuery();
+        rs.next();
+        return rs.getBytes("ast");
+    }
+
     public Map<String, byte[]> findAllAstForLabAndStudent(String studentLogin, int labNumber) throws SQLException {
         PreparedStatement statement = connection.prepareStatement("select ast, student_login from ast where lab_number = ? and student_login <> ?");
         statement.setInt(1, labNumber);
@@ -0,0 +1,64 @@
+package com.kerellka.utils;
+
+import com.github.javaparser.ast.Node;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+public class NodeOrdinals {
+
+    public static final int UNKNOWN = -1;
+
+    private final IdentityHashMap<Node, Integer> ordinals = new IdentityHashMap<>();
+    private final List<Node> nodes = new ArrayList<>();
+    private final int[] subtreeSizes;
+
+    public NodeOrdinals(Node root) {
+        var parents = new ArrayList<Integer>();
+        var stack = new ArrayDeque<Node>();
+        var parentStack = new ArrayDeque<Integer>();
+        stack.push(root);
+        parentStack.push(UNKNOWN);
+        while (!stack.isEmpty()) {
+            var node = stack.pop();
+            var ordinal = nodes.size();
+            ordinals.put(node, ordinal);
+            nodes.add(node);
+            parents.add(parentStack.pop());
+            var children = node.getChildNodes();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+                parentStack.push(ordinal);
+            }
+        }
+
+        subtreeSizes = new int[nodes.size()];
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            subtreeSizes[i]++;
+            if (parents.get(i) != UNKNOWN) {
+                subtreeSizes[parents.get(i)] += subtreeSizes[i];
+            }
+        }
+    }
+
+    public int ordinalOf(Node node) {
+        var ordinal = ordinals.get(node);
+        return ordinal == null ? UNKNOWN : ordinal;
+    }
+
+    public Node nodeAt(int ordinal) {
+        return nodes.get(ordinal);
+    }
+
+    // descendants of a node occupy the ordinals right after it
+    public int subtreeSize(int ordinal) {
+        return subtreeSizes[ordinal];
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+}
@@ -2,29 +2,56 @@ package com.kerellka.utils;
 
 import com.github.javaparser.ast.Node;
 
-import java.util.HashSet;
-import java.util.Objects;
-import java.util.Set;
+import java.util.BitSet;
 
 public class PlagiarismStats {
 
-    private static final Set<Node> totalNodes = new HashSet<>();
-    private static final Set<Node> hasTwinNodes = new HashSet<>();
+    private final NodeOrdinals ordinals;
+    private final BitSet totalNodes;
+    private final BitSet hasTwinNodes;
 
-    private static final PlagiarismStats SINGLETON = new PlagiarismStats();
+    public PlagiarismStats(Node root) {
+        this(new NodeOrdinals(root));
+    }
+
+    public PlagiarismStats(NodeOrdinals ordinals) {
+        this.ordinals = ordinals;
+        this.totalNodes = new BitSet(ordinals.size());
+        this.hasTwinNodes = new BitSet(ordinals.size());
+    }
 
     public long countPlagiarismPercent() {
-        long totalNodesCount = totalNodes.stream().filter(Objects::nonNull).count();
-        long hasTwinNodesCount = hasTwinNodes.stream().filter(Objects::nonNull).count();
+        return percent(hasTwinNodes.cardinality(), totalNodes.cardinality());
+    }
+
+    // share of the nodes of both sides that have a twin, which does not depend on which side was walked
+    public static long countCombinedPercent(PlagiarismStats left, PlagiarismStats right) {
+        return percent(left.hasTwinNodes.cardinality() + right.hasTwinNodes.cardinality(),
+                left.totalNodes.cardinality() + right.totalNodes.cardinality());
+    }
+
+    private static long percent(long hasTwinNodesCount, long totalNodesCount) {
         return (long)(100 * (((double)hasTwinNodesCount / totalNodesCount)));
     }
 
     public void addNode(Node node) {
-        totalNodes.add(node);
+        addNode(ordinals.ordinalOf(node));
+    }
+
+    public void addNode(int ordinal) {
+        if (ordinal != NodeOrdinals.UNKNOWN) {
+            totalNodes.set(ordinal);
+        }
     }
 
     public void addHasTwin(Node node) {
-        hasTwinNodes.add(node);
+        addHasTwin(ordinals.ordinalOf(node));
+    }
+
+    public void addHasTwin(int ordinal) {
+        if (ordinal != NodeOrdinals.UNKNOWN) {
+            hasTwinNodes.set(ordinal);
+        }
     }
 
     public void refreshStats() {
@@ -32,9 +59,4 @@ public class PlagiarismStats {
         hasTwinNodes.clear();
     }
 
-    private PlagiarismStats() { }
-
-    public static PlagiarismStats getInstance() {
-        return SINGLETON;
-    }
 }
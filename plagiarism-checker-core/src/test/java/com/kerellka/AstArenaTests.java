@@ -0,0 +1,40 @@
+package com.kerellka;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.kerellka.core.AstArena;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AstArenaTests {
+
+    @Test
+    public void childLinksMatchSubtreeSizes() {
+        var arena = AstArena.of(TestUtils.getCompilationUnitFromResource("/alg_comparison/moving/Calculator1.java"));
+
+        assertEquals(CompilationUnit.class, AstArena.kindClass(arena.kind(0)));
+        assertEquals(arena.size(), arena.subtreeSize(0));
+        for (int i = 0; i < arena.size(); i++) {
+            var size = 1;
+            for (int child = arena.firstChild(i); child != AstArena.NONE; child = arena.nextSibling(child)) {
+                assertEquals(i + size, child);
+                size += arena.subtreeSize(child);
+            }
+            assertEquals(arena.subtreeSize(i), size);
+        }
+    }
+
+    @Test
+    public void coverageFollowsSubtreeHashes() {
+        var renaming1 = AstArena.of(TestUtils.getCompilationUnitFromResource("/alg_comparison/renaming/Calculator1.java"));
+        var renaming2 = AstArena.of(TestUtils.getCompilationUnitFromResource("/alg_comparison/renaming/Calculator2.java"));
+        var removed1 = AstArena.of(TestUtils.getCompilationUnitFromResource("/alg_comparison/add_rm_lines/Calculator1.java"));
+        var removed2 = AstArena.of(TestUtils.getCompilationUnitFromResource("/alg_comparison/add_rm_lines/Calculator2.java"));
+
+        assertEquals(100, AstArena.countPlagiarismPercentage(renaming1, renaming2));
+        var percentage = AstArena.countPlagiarismPercentage(removed1, removed2);
+        assertTrue(percentage > 50 && percentage < 100, "partial coverage: " + percentage);
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.kerellka;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.github.javaparser.ast.stmt.ForStmt;
+import com.github.javaparser.ast.stmt.WhileStmt;
+import com.kerellka.core.Canonicalizer;
+import com.kerellka.core.PlagiarismChecker;
+import com.kerellka.utils.IOTreeUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CanonicalizerTests {
+
+    @Test
+    public void forLoopsAndConstantsAreRewritten() {
+        assertEquals(100, canonicalPercentage("/alg_comparison/for_while/ForWhile1.java", "/alg_comparison/for_while/ForWhile2.java"));
+        assertEquals(100, canonicalPercentage("/alg_comparison/extract_constant/Const1.java", "/alg_comparison/extract_constant/Const2.java"));
+        assertEquals(100, canonicalPercentage("/alg_comparison/log_expr_swap/Main1.java", "/alg_comparison/log_expr_swap/Main2.java"));
+    }
+
+    @Test
+    public void commutativeOperandsGetOneOrder() {
+        var left = Canonicalizer.canonicalize(StaticJavaParser.parse("class A { boolean f(int x, int y) { return x < y && x > 0 || x == 10; } }"));
+        var right = Canonicalizer.canonicalize(StaticJavaParser.parse("class A { boolean f(int x, int y) { return x == 10 || x > 0 && x < y; } }"));
+
+        assertEquals(left.toString(), right.toString());
+        for (var expr : left.findAll(BinaryExpr.class)) {
+            assertSame(expr, expr.getLeft().getParentNode().get());
+            assertSame(expr, expr.getRight().getParentNode().get());
+        }
+    }
+
+    @Test
+    public void longCommutativeChainsGetOneOrder() {
+        var left = Canonicalizer.canonicalize(StaticJavaParser.parse("class A { int f(int x, int y, int z) { return x * 2 + y * 3 + z * 5; } }"));
+        var right = Canonicalizer.canonicalize(StaticJavaParser.parse("class A { int f(int x, int y, int z) { return z * 5 + y * 3 + x * 2; } }"));
+
+        assertEquals(left.toString(), right.toString());
+        for (var expr : left.findAll(BinaryExpr.class)) {
+            assertSame(expr, expr.getLeft().getParentNode().get());
+            assertSame(expr, expr.getRight().getParentNode().get());
+        }
+        var restored = (CompilationUnit) IOTreeUtils.readFromJSON(IOTreeUtils.writeToJSON(left));
+        assertEquals(left.toString(), restored.toString());
+    }
+
+    @Test
+    public void canonicalFormLeavesTheInputAlone() {
+        var source = "class A {\n"
+                + "    // the limit\n"
+                + "    static final int LIMIT = 10;\n"
+                + "    void f(int LIMIT2) { for (int i = 0; i < LIMIT; i++) { g(i); } }\n"
+                + "}";
+        var unit = StaticJavaParser.parse(source);
+        var before = unit.toString();
+
+        var canonical = Canonicalizer.canonicalize(unit);
+
+        assertEquals(before, unit.toString());
+        assertNotEquals(before, canonical.toString());
+        assertTrue(canonical.getAllContainedComments().isEmpty());
+        var restored = (CompilationUnit) IOTreeUtils.readFromJSON(IOTreeUtils.writeToJSON(canonical));
+        assertEquals(canonical.toString(), restored.toString());
+    }
+
+    @Test
+    public void shadowedConstantsAreKept() {
+        var unit = StaticJavaParser.parse("class A { static final int N = 1; int f(int N) { return N; } }");
+
+        var canonical = Canonicalizer.canonicalize(unit);
+
+        assertEquals(1, canonical.getType(0).getFields().size());
+        assertEquals("return N;", canonical.getType(0).getMethods().get(0).getBody().get().getStatement(0).toString());
+    }
+
+    @Test
+    public void constantsShadowedByOtherBindingsAreKept() {
+        var parser = new JavaParser(new ParserConfiguration().setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_16));
+        var sources = List.of(
+                "class A { static final int N = 1; boolean f(Object o) { return o instanceof Integer N && N > 0; } }",
+                "class A { static final int N = 1; Object f() { return (java.util.function.IntUnaryOperator) N -> N + 1; } }",
+                "class A { static final int N = 1; int f() { try { return 0; } catch (RuntimeException N) { return N.hashCode(); } } }",
+                "class A { static final int N = 1; enum E { N } Object f() { return E.valueOf(\"N\"); } }");
+        for (var source : sources) {
+            var canonical = Canonicalizer.canonicalize(parser.parse(source).getResult().orElseThrow());
+
+            assertEquals(1, canonical.getType(0).getFields().size(), source);
+        }
+    }
+
+    @Test
+    public void continuedForLoopsAreKept() {
+        var unit = StaticJavaParser.parse("class A { void f(int n) {\n"
+                + "    for (int i = 0; i < n; i++) { if (i == 2) continue; g(i); }\n"
+                + "    outer: for (int i = 0; i < n; i++) { for (int j = 0; j < i; j++) { if (j == 1) continue outer; } }\n"
+                + "    for (int i = 0; i < n; i++) { for (int j = 0; j < i; j++) { if (j == 1) continue; } }\n"
+                + "} }");
+
+        var canonical = Canonicalizer.canonicalize(unit);
+
+        var statements = canonical.getType(0).getMethods().get(0).getBody().get().getStatements();
+        assertTrue(statements.get(0).isForStmt());
+        // the labeled loop is continued from the inner one, which itself becomes a while loop
+        var labeled = statements.get(1).asLabeledStmt().getStatement().asForStmt();
+        assertTrue(labeled.getBody().findFirst(WhileStmt.class).isPresent());
+        // an unlabeled continue only targets the inner loop, so the outer one is rewritten
+        assertTrue(statements.get(3).isWhileStmt());
+        assertTrue(statements.get(3).findFirst(ForStmt.class).isPresent());
+    }
+
+    private static long canonicalPercentage(String leftPath, String rightPath) {
+        var left = Canonicalizer.canonicalize(TestUtils.getCompilationUnitFromResource(leftPath));
+        var right = Canonicalizer.canonicalize(TestUtils.getCompilationUnitFromResource(rightPath));
+        return PlagiarismChecker.countPlagiarismPercentage(left, right);
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.kerellka;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.utils.Pair;
+import com.kerellka.core.ComparisonCascade;
+import com.kerellka.core.ComparisonOptions;
+import com.kerellka.core.PlagiarismChecker;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ComparisonCascadeTests {
+
+    @Test
+    public void cheapStagesKeepPairsFromTheVisitor() {
+        var units = new TreeMap<String, CompilationUnit>();
+        for (var name : List.of("renaming/Calculator1", "renaming/Calculator2", "add_rm_lines/Printer1", "add_rm_lines/Printer2",
+                "for_while/ForWhile1", "performance/PlagiarismEqualsVisitor1")) {
+            units.put(name, TestUtils.getCompilationUnitFromResource("/alg_comparison/" + name + ".java"));
+        }
+        var pairs = new ArrayList<Pair<String, String>>();
+        for (var left : units.keySet()) {
+            for (var right : units.tailMap(left, false).keySet()) {
+                pairs.add(new Pair<>(left, right));
+            }
+        }
+        var prepared = ConcurrentHashMap.<String>newKeySet();
+
+        var result = ComparisonCascade.parse("histogram:90, fingerprint:30, visitor:80")
+                .run(key -> {
+                    prepared.add(key);
+                    return units.get(key);
+                }, pairs, ComparisonOptions.defaults());
+
+        var reports = result.getStageReports();
+        assertEquals(3, reports.size());
+        assertEquals(pairs.size(), reports.get(0).getInputCount());
+        for (int i = 1; i < reports.size(); i++) {
+            assertEquals(reports.get(i - 1).getPassedCount(), reports.get(i).getInputCount());
+        }
+        assertTrue(reports.get(0).getEliminatedCount() > 0);
+        assertEquals(reports.get(2).getPassedCount(), result.getResults().size());
+        assertEquals(Set.of(new Pair<>("add_rm_lines/Printer1", "add_rm_lines/Printer2"), new Pair<>("renaming/Calculator1", "renaming/Calculator2")),
+                result.getResults().keySet());
+        var renamed = result.getResults().get(new Pair<>("renaming/Calculator1", "renaming/Calculator2"));
+        assertEquals(PlagiarismChecker.countPlagiarismPercentage(units.get("renaming/Calculator1"), units.get("renaming/Calculator2")),
+                renamed.getPercentage());
+        assertEquals(units.size(), prepared.size());
+    }
+
+    @Test
+    public void unknownStagesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ComparisonCascade.parse("histogram:80,unknown:10"));
+        assertThrows(IllegalArgumentException.class, () -> ComparisonCascade.parse("visitor:10:20"));
+        assertEquals(0, ComparisonCascade.parse("visitor").getStages().get(0).getThreshold());
+    }
+
+}
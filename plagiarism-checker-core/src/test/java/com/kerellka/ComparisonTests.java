@@ -1,15 +1,39 @@
 package com.kerellka;
 
+import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.ast.CompilationUnit;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.MethodSource;
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.IntegerLiteralExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.kerellka.core.ComparisonOptions;
+import com.kerellka.core.ComparisonResult;
 import com.kerellka.core.PlagiarismChecker;
+import com.kerellka.core.PlagiarismEqualsVisitor;
+import com.kerellka.core.SimilarityEngine;
+import com.kerellka.core.SimilarityEngines;
+import com.kerellka.core.Traversal;
 import com.kerellka.utils.IOTreeUtils;
 
 import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 public class ComparisonTests {
 
     @ParameterizedTest
@@ -29,6 +53,185 @@ public class ComparisonTests {
 
     }
 
+    // both directions of each fixture pair. Rejecting pairs of different shapes before walking them drops the
+    // twins the walk used to record inside a pair that was not equal in the end: extract_method went from 72 to 70
+    @ParameterizedTest
+    @CsvSource({
+            "add_rm_lines/Calculator, 88, 100",
+            "add_rm_lines/Printer, 100, 81",
+            "dependency_graph_attack/Tmp, 100, 76",
+            "extract_constant/Const, 50, 69",
+            "extract_method/Tmp, 70, 100",
+            "extract_param/Field, 63, 77",
+            "for_while/ForWhile, 40, 28",
+            "log_expr_swap/Main, 100, 100",
+            "moving/Calculator, 100, 100",
+            "renaming/Calculator, 100, 100"
+    })
+    public void fixturePercentagesTest(String name, long forward, long backward) {
+        var first = TestUtils.getCompilationUnitFromResource("/alg_comparison/" + name + "1.java");
+        var second = TestUtils.getCompilationUnitFromResource("/alg_comparison/" + name + "2.java");
+
+        assertEquals(forward, PlagiarismChecker.countPlagiarismPercentage(first, second));
+        assertEquals(backward, PlagiarismChecker.countPlagiarismPercentage(second, first));
+    }
+
+    @Test
+    public void concurrentComparisonTest() {
+        var left = TestUtils.getCompilationUnitFromResource("/alg_comparison/add_rm_lines/Calculator1.java");
+        var others = new HashMap<String, CompilationUnit>();
+        provideFilePathToCompare2().forEach(arguments -> {
+            var path = (String) arguments.get()[1];
+            others.put(path, TestUtils.getCompilationUnitFromResource(path));
+        });
+
+        var concurrentResults = PlagiarismChecker.compareAll(left, others, ComparisonOptions.defaults());
+
+        others.forEach((path, right) ->
+                assertEquals(PlagiarismChecker.countPlagiarismPercentage(left, right), concurrentResults.get(path).getPercentage(), path)
+        );
+    }
+
+    @Test
+    public void membersArePairedOneToOneTest() {
+        var left = StaticJavaParser.parse("class A { int sum(int a, int b) { return a + b; } int add(int x, int y) { return x + y; } }");
+        var right = StaticJavaParser.parse("class B { int plus(int p, int q) { return p + q; } }");
+
+        var percentage = PlagiarismChecker.countPlagiarismPercentage(left, right);
+
+        assertTrue(percentage < 100, "one right method can not twin two left methods: " + percentage);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(percentage, PlagiarismChecker.countPlagiarismPercentage(left, right));
+        }
+        assertEquals(100, PlagiarismChecker.countPlagiarismPercentage(right, left));
+    }
+
+    @Test
+    public void enumConstantBodiesPairMethodsByTheirBodiesTest() {
+        var left = StaticJavaParser.parse("enum E { A { void f() { a(1); b(2); c(3); d(4); } }, B }");
+        var right = StaticJavaParser.parse("enum E { A { void f() { a(1); b(2); int c = 3; d(4); } }, B }");
+
+        for (var traversal : Traversal.values()) {
+            var options = ComparisonOptions.defaults().withTraversal(traversal);
+            assertEquals(83, PlagiarismChecker.countPlagiarismPercentage(left, right, options), traversal.name());
+        }
+    }
+
+    @Test
+    public void bothCoveragesComeFromOneComparisonTest() {
+        var left = StaticJavaParser.parse("class A { long sum(int a, long b) { return a + b; } }");
+        var right = StaticJavaParser.parse("class B { long plus(int p, long q) { return p + q; } void log(String s) { System.out.println(s); } }");
+
+        var result = PlagiarismChecker.compare(left, right, ComparisonOptions.defaults());
+        var renamed = PlagiarismChecker.compare(left, StaticJavaParser.parse("class B { long plus(int p, long q) { return p + q; } }"), ComparisonOptions.defaults());
+
+        assertEquals(100, result.getLeftCoverage());
+        assertEquals(83, result.getRightCoverage(), "the right method without a twin is not covered");
+        assertEquals(90, result.getCombinedPercentage());
+        assertEquals(100, renamed.getRightCoverage());
+        assertEquals(100, renamed.getCombinedPercentage());
+    }
+
+    @Test
+    public void repeatedElementsOfIdenticalTreesArePairedOnceTest() {
+        var source = "class A { int sum(int a, int b) { return a + b; } }";
+        // with the body changed the parameters are walked, and both left ones are paired with the first right one
+        var walked = PlagiarismChecker.compare(StaticJavaParser.parse(source),
+                StaticJavaParser.parse("class A { int sum(int a, int b) { log(); return a + b; } }"), ComparisonOptions.defaults());
+        var identical = PlagiarismChecker.compare(StaticJavaParser.parse(source), StaticJavaParser.parse(source), ComparisonOptions.defaults());
+
+        assertEquals(100, walked.getLeftCoverage());
+        assertEquals(66, walked.getRightCoverage());
+        assertEquals(100, identical.getLeftCoverage());
+        assertEquals(80, identical.getRightCoverage());
+    }
+
+    @Test
+    public void bothWaysScoresEachDirectionOnItsOwnTest() {
+        var left = TestUtils.getCompilationUnitFromResource("/alg_comparison/extract_method/Tmp1.java");
+        var right = TestUtils.getCompilationUnitFromResource("/alg_comparison/extract_method/Tmp2.java");
+
+        var single = PlagiarismChecker.compare(left, right, ComparisonOptions.defaults());
+        var both = scoreBothWays(SimilarityEngines.get("visitor"), left, right);
+
+        assertEquals(single.getLeftCoverage(), both.getLeftCoverage());
+        assertEquals(PlagiarismChecker.compare(right, left, ComparisonOptions.defaults()).getLeftCoverage(), both.getRightCoverage());
+        assertTrue(single.getRightCoverage() < both.getRightCoverage(), "the left-driven walk does not look for twins of right nodes");
+        assertEquals(100, Math.max(both.getLeftCoverage(), both.getRightCoverage()));
+    }
+
+    @Test
+    public void visitBudgetTruncatesComparisonTest() {
+        var left = TestUtils.getCompilationUnitFromResource("/alg_comparison/add_rm_lines/Calculator1.java");
+        var right = TestUtils.getCompilationUnitFromResource("/alg_comparison/add_rm_lines/Calculator2.java");
+
+        var full = PlagiarismChecker.compare(left, right, ComparisonOptions.defaults());
+        var truncated = PlagiarismChecker.compare(left, right, ComparisonOptions.defaults().withNodeVisitBudget(10));
+        var expired = PlagiarismChecker.compare(left, right, ComparisonOptions.defaults().withDeadline(Instant.now().minusSeconds(1)));
+
+        assertFalse(full.isTruncated());
+        assertEquals(PlagiarismChecker.countPlagiarismPercentage(left, right), full.getPercentage());
+        assertTrue(truncated.isTruncated());
+        assertEquals(11, truncated.getVisitedNodes());
+        assertTrue(full.getVisitedNodes() > 11);
+        assertTrue(expired.isTruncated());
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideFilePathToCompare2")
+    public void iterativeTraversalMatchesRecursiveTest(String leftFilePath, String rightFilePath) {
+        var left = TestUtils.getCompilationUnitFromResource(leftFilePath);
+        var right = TestUtils.getCompilationUnitFromResource(rightFilePath);
+
+        for (var pair : List.of(List.of(left, right), List.of(right, left))) {
+            var recursive = PlagiarismChecker.compare(pair.get(0), pair.get(1), ComparisonOptions.defaults());
+            var iterative = PlagiarismChecker.compare(pair.get(0), pair.get(1), ComparisonOptions.defaults().withTraversal(Traversal.ITERATIVE));
+
+            assertEquals(recursive.getPercentage(), iterative.getPercentage(), leftFilePath);
+            assertEquals(recursive.getRightCoverage(), iterative.getRightCoverage(), leftFilePath);
+            assertEquals(recursive.getVisitedNodes(), iterative.getVisitedNodes(), leftFilePath);
+        }
+    }
+
+    @Test
+    public void iterativeTraversalHandlesDeepExpressionsTest() throws InterruptedException {
+        // the chains only differ at the bottom, where the shapes can not tell them apart
+        var left = deepChain("1");
+        var right = deepChain("2");
+        var copy = deepChain("1");
+        var results = new ArrayList<ComparisonResult>();
+        var failure = new AtomicReference<Throwable>();
+
+        var thread = new Thread(null, () -> {
+            try {
+                var options = ComparisonOptions.defaults().withTraversal(Traversal.ITERATIVE);
+                results.add(PlagiarismEqualsVisitor.compare(left, right, options));
+                results.add(PlagiarismEqualsVisitor.compare(left, copy, options));
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        }, "deep-comparison", 256 * 1024);
+        thread.start();
+        thread.join();
+
+        assertNull(failure.get());
+        assertEquals(0, results.get(0).getPercentage());
+        assertTrue(results.get(0).getVisitedNodes() > 10_000);
+        assertEquals(100, results.get(1).getPercentage());
+    }
+
+    private static <P> ComparisonResult scoreBothWays(SimilarityEngine<P> engine, CompilationUnit left, CompilationUnit right) {
+        return PlagiarismChecker.scoreBothWays(engine, engine.prepare(left), engine.prepare(right), ComparisonOptions.defaults());
+    }
+
+    private static Expression deepChain(String argument) {
+        Expression chain = new MethodCallExpr("f", new IntegerLiteralExpr(argument));
+        for (int i = 0; i < 10_000; i++) {
+            chain = new BinaryExpr(chain, new NameExpr("s"), BinaryExpr.Operator.MINUS);
+        }
+        return chain;
+    }
+
     private static Stream<Arguments> provideFilePathToCompare() {
         return Stream.of(
                 Arguments.of(
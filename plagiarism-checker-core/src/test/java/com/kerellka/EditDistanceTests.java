@@ -0,0 +1,70 @@
+package com.kerellka;
+
+import com.github.javaparser.StaticJavaParser;
+import com.kerellka.core.ComparisonOptions;
+import com.kerellka.core.DistanceKernel;
+import com.kerellka.core.EditDistance;
+import com.kerellka.core.PlagiarismChecker;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EditDistanceTests {
+
+    @Test
+    public void bitParallelMatchesDynamicProgramming() {
+        var random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            var a = randomSequence(random, random.nextInt(200));
+            var b = randomSequence(random, random.nextInt(200));
+            assertEquals(EditDistance.levenshtein(a, b), EditDistance.bitParallel(a, b));
+        }
+    }
+
+    @Test
+    public void emptySequences() {
+        assertEquals(0, EditDistance.bitParallel(new long[0], new long[0]));
+        assertEquals(3, EditDistance.bitParallel(new long[]{1, 2, 3}, new long[0]));
+        assertEquals(2, EditDistance.bitParallel(new long[0], new long[]{1, 2}));
+    }
+
+    @Test
+    public void kernelsAgreeOnFixtures() {
+        var dynamicProgramming = ComparisonOptions.defaults().withDistanceKernel(DistanceKernel.DYNAMIC_PROGRAMMING);
+        var bitParallel = ComparisonOptions.defaults().withDistanceKernel(DistanceKernel.BIT_PARALLEL);
+        for (var name : List.of("add_rm_lines/Calculator", "add_rm_lines/Printer", "dependency_graph_attack/Tmp",
+                "extract_constant/Const", "extract_method/Tmp", "extract_param/Field", "for_while/ForWhile",
+                "log_expr_swap/Main", "moving/Calculator", "performance/PlagiarismEqualsVisitor", "renaming/Calculator")) {
+            var first = TestUtils.getCompilationUnitFromResource("/alg_comparison/" + name + "1.java");
+            var second = TestUtils.getCompilationUnitFromResource("/alg_comparison/" + name + "2.java");
+            assertEquals(PlagiarismChecker.compare(first, second, dynamicProgramming).getPercentage(),
+                    PlagiarismChecker.compare(first, second, bitParallel).getPercentage(), name);
+            assertEquals(PlagiarismChecker.compare(second, first, dynamicProgramming).getPercentage(),
+                    PlagiarismChecker.compare(second, first, bitParallel).getPercentage(), name);
+        }
+    }
+
+    @Test
+    public void bitParallelOnlySeesIdenticalStatements() {
+        // f(0, 0) equals f(0) for nodeEquals but not by hash, so only the DP kernel keeps the bodies within a distance of 2
+        var left = StaticJavaParser.parse("class A { void a() { f(0, 0); f(1, 1); f(2); f(3); } }");
+        var right = StaticJavaParser.parse("class A { void b() { f(0); f(1); f(2); f(4); } }");
+        var dynamicProgramming = ComparisonOptions.defaults().withDistanceKernel(DistanceKernel.DYNAMIC_PROGRAMMING);
+        var bitParallel = ComparisonOptions.defaults().withDistanceKernel(DistanceKernel.BIT_PARALLEL);
+
+        assertEquals(83, PlagiarismChecker.compare(left, right, dynamicProgramming).getPercentage());
+        assertEquals(66, PlagiarismChecker.compare(left, right, bitParallel).getPercentage());
+    }
+
+    private static long[] randomSequence(Random random, int length) {
+        var sequence = new long[length];
+        for (int i = 0; i < length; i++) {
+            sequence[i] = random.nextInt(4) * 0x9E3779B97F4A7C15L;
+        }
+        return sequence;
+    }
+
+}
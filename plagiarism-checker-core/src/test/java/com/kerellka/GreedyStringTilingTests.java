@@ -0,0 +1,32 @@
+package com.kerellka;
+
+import com.kerellka.core.GreedyStringTiling;
+import com.kerellka.core.PlagiarismChecker;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GreedyStringTilingTests {
+
+    @Test
+    public void swappedBlocksAreTiled() {
+        long[] left = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12};
+        long[] right = {7, 8, 9, 10, 11, 12, 0, 1, 2, 3, 4, 5, 6};
+
+        assertEquals(12, GreedyStringTiling.tiledLength(left, right, 6));
+        assertEquals(0, GreedyStringTiling.tiledLength(left, right, 7));
+    }
+
+    @Test
+    public void movedMethodsKeepTheirTiles() {
+        var left = TestUtils.getCompilationUnitFromResource("/alg_comparison/moving/Calculator1.java");
+        var right = TestUtils.getCompilationUnitFromResource("/alg_comparison/moving/Calculator2.java");
+        var unrelated = TestUtils.getCompilationUnitFromResource("/alg_comparison/extract_constant/Const2.java");
+
+        assertEquals(100, PlagiarismChecker.countPlagiarismPercentageByTiling(left, left));
+        assertTrue(PlagiarismChecker.countPlagiarismPercentageByTiling(left, right) >= 80);
+        assertTrue(PlagiarismChecker.countPlagiarismPercentageByTiling(left, unrelated) < 50);
+    }
+
+}
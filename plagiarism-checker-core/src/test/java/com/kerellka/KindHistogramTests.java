@@ -0,0 +1,48 @@
+package com.kerellka;
+
+import com.github.javaparser.StaticJavaParser;
+import com.kerellka.core.KindHistogram;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KindHistogramTests {
+
+    @Test
+    public void renamedSubmissionsHaveEqualHistograms() {
+        var renaming1 = KindHistogram.of(TestUtils.getCompilationUnitFromResource("/alg_comparison/renaming/Calculator1.java"));
+        var renaming2 = KindHistogram.of(TestUtils.getCompilationUnitFromResource("/alg_comparison/renaming/Calculator2.java"));
+        var visitor = KindHistogram.of(TestUtils.getCompilationUnitFromResource("/alg_comparison/performance/PlagiarismEqualsVisitor1.java"));
+
+        assertEquals(1.0, KindHistogram.cosine(renaming1, renaming2), 1e-9);
+        assertEquals(1.0, KindHistogram.manhattan(renaming1, renaming2), 1e-9);
+        assertTrue(KindHistogram.cosine(renaming1, visitor) < KindHistogram.cosine(renaming1, renaming2));
+        assertTrue(KindHistogram.manhattan(renaming1, visitor) < 0.5);
+        assertTrue(KindHistogram.size(visitor) > KindHistogram.size(renaming1));
+    }
+
+    @Test
+    public void operatorsAndCommentsAreCountedApart() {
+        var sum = KindHistogram.of(StaticJavaParser.parse("class A { int f(int a) { return a + 1; } }"));
+        var product = KindHistogram.of(StaticJavaParser.parse("class A { int f(int a) { return a * 1; } }"));
+        var commented = KindHistogram.of(StaticJavaParser.parse("class A { /** adds one */ int f(int a) { return a + 1; } // done\n }"));
+
+        assertNotEquals(1.0, KindHistogram.cosine(sum, product));
+        assertEquals(KindHistogram.size(sum), KindHistogram.size(product));
+        assertArrayEquals(sum, commented);
+    }
+
+    @Test
+    public void histogramSurvivesStorage() {
+        var histogram = KindHistogram.of(TestUtils.getCompilationUnitFromResource("/alg_comparison/moving/Calculator1.java"));
+
+        assertArrayEquals(histogram, KindHistogram.fromBytes(KindHistogram.toBytes(histogram)));
+        assertTrue(KindHistogram.isCurrent(histogram));
+        assertFalse(KindHistogram.isCurrent(new double[KindHistogram.LENGTH - 1]));
+    }
+
+}
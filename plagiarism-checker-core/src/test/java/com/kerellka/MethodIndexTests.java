@@ -0,0 +1,97 @@
+package com.kerellka;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.utils.Pair;
+import com.kerellka.core.ComparisonCascade;
+import com.kerellka.core.ComparisonOptions;
+import com.kerellka.core.MethodIndex;
+import com.kerellka.core.PlagiarismChecker;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MethodIndexTests {
+
+    private static final String ORIGINAL = "class Stats {\n"
+            + "    private int count;\n"
+            + "    int getCount() { return count; }\n"
+            + "    static double mean(int[] values) {\n"
+            + "        double sum = 0;\n"
+            + "        for (int i = 0; i < values.length; i++) { sum += values[i]; }\n"
+            + "        return values.length == 0 ? 0 : sum / values.length;\n"
+            + "    }\n"
+            + "}\n"
+            + "class Main { public static void main(String[] args) { System.out.println(Stats.mean(new int[] {1, 2, 3})); } }";
+
+    // mean moved to another class, renamed, and its loop rewritten
+    private static final String MOVED = "class Helpers {\n"
+            + "    static double average(int[] xs) {\n"
+            + "        double total = 0;\n"
+            + "        int k = 0;\n"
+            + "        while (k < xs.length) { total += xs[k]; k++; }\n"
+            + "        return xs.length == 0 ? 0 : total / xs.length;\n"
+            + "    }\n"
+            + "}\n"
+            + "class Report { private int size; int getSize() { return size; } }";
+
+    private static final String UNRELATED = "class Printer { void print(String s) { if (s != null) { System.out.println(s.trim()); } } }";
+
+    @Test
+    public void movedMethodsAreFoundAcrossClasses() {
+        var index = new MethodIndex<String>();
+        index.add("original", MethodIndex.fingerprints(StaticJavaParser.parse(ORIGINAL)));
+        index.add("moved", MethodIndex.fingerprints(StaticJavaParser.parse(MOVED)));
+        index.add("unrelated", MethodIndex.fingerprints(StaticJavaParser.parse(UNRELATED)));
+
+        assertEquals(List.of(new Pair<>("original", "moved")), index.candidatePairs());
+        var shared = index.sharedMethods(index.get("original"));
+        assertEquals("Stats.mean", shared.get("moved").get(0).a.toString());
+        assertEquals("Helpers.average", shared.get("moved").get(0).b.toString());
+
+        var result = MethodIndex.compare(index.get("original"), index.get("moved"));
+        assertEquals(100, result.getRightCoverage());
+        assertTrue(result.getLeftCoverage() > 0 && result.getLeftCoverage() < 100, "main is not shared: " + result.getLeftCoverage());
+        assertEquals(0, MethodIndex.compare(index.get("original"), index.get("unrelated")).getPercentage());
+    }
+
+    @Test
+    public void sharedMethodsAreACascadeStage() {
+        var units = Map.of("original", StaticJavaParser.parse(ORIGINAL), "moved", StaticJavaParser.parse(MOVED),
+                "unrelated", StaticJavaParser.parse(UNRELATED));
+        var pairs = List.of(new Pair<>("original", "moved"), new Pair<>("original", "unrelated"));
+
+        var result = ComparisonCascade.parse("methods:50, visitor").run(units::get, pairs, ComparisonOptions.defaults());
+
+        assertEquals(Set.of(pairs.get(0)), result.getResults().keySet());
+        // the score is the visitor's, the shared method only let the pair through
+        var visitor = PlagiarismChecker.compare(units.get("original"), units.get("moved"), ComparisonOptions.defaults());
+        assertEquals(visitor.getPercentage(), result.getResults().get(pairs.get(0)).getPercentage());
+    }
+
+    @Test
+    public void smallMethodsAreNotIndexed() {
+        var methods = MethodIndex.fingerprints(StaticJavaParser.parse(ORIGINAL));
+
+        assertTrue(methods.stream().noneMatch(method -> method.getMethodName().equals("getCount")));
+        assertTrue(methods.stream().allMatch(method -> method.getSize() >= MethodIndex.MIN_BODY_SIZE));
+    }
+
+    @Test
+    public void fingerprintsSurviveStorage() {
+        var methods = MethodIndex.fingerprints(StaticJavaParser.parse(ORIGINAL));
+        var restored = MethodIndex.fromBytes(MethodIndex.toBytes(methods));
+
+        assertEquals(methods.size(), restored.size());
+        for (int i = 0; i < methods.size(); i++) {
+            assertEquals(methods.get(i).getBodyHash(), restored.get(i).getBodyHash());
+            assertEquals(methods.get(i).getSize(), restored.get(i).getSize());
+            assertEquals(methods.get(i).toString(), restored.get(i).toString());
+        }
+    }
+
+}
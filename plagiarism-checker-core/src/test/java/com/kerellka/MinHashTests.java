@@ -0,0 +1,40 @@
+package com.kerellka;
+
+import com.github.javaparser.utils.Pair;
+import com.kerellka.core.LshIndex;
+import com.kerellka.core.MinHash;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MinHashTests {
+
+    @Test
+    public void renamedSubmissionsAreCandidates() {
+        var renaming1 = MinHash.signature(TestUtils.getCompilationUnitFromResource("/alg_comparison/renaming/Calculator1.java"));
+        var renaming2 = MinHash.signature(TestUtils.getCompilationUnitFromResource("/alg_comparison/renaming/Calculator2.java"));
+        var visitor = MinHash.signature(TestUtils.getCompilationUnitFromResource("/alg_comparison/performance/PlagiarismEqualsVisitor1.java"));
+
+        var index = new LshIndex<String>();
+        index.add("renaming1", renaming1);
+        index.add("visitor", visitor);
+        index.add("renaming2", renaming2);
+
+        assertEquals(1.0, MinHash.similarity(renaming1, renaming2));
+        assertTrue(MinHash.similarity(renaming1, visitor) < 0.5);
+        assertEquals(List.of(new Pair<>("renaming1", "renaming2")), index.candidatePairs());
+        assertEquals(List.of("renaming1", "renaming2"), index.candidates(renaming2));
+    }
+
+    @Test
+    public void signatureSurvivesStorage() {
+        var signature = MinHash.signature(TestUtils.getCompilationUnitFromResource("/alg_comparison/moving/Calculator1.java"));
+
+        assertArrayEquals(signature, MinHash.fromBytes(MinHash.toBytes(signature)));
+    }
+
+}
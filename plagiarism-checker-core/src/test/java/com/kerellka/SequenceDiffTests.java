@@ -0,0 +1,77 @@
+package com.kerellka;
+
+import com.kerellka.core.SequenceDiff;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SequenceDiffTests {
+
+    @Test
+    public void hunksCoverBothSequencesWithMinimalEdits() {
+        var random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            var a = randomSequence(random, random.nextInt(60));
+            var b = randomSequence(random, random.nextInt(60));
+            var hunks = SequenceDiff.diff(a, b);
+
+            int left = 0;
+            int right = 0;
+            int edits = 0;
+            for (var hunk : hunks) {
+                assertEquals(left, hunk.getLeftFrom());
+                assertEquals(right, hunk.getRightFrom());
+                if (hunk.getType() == SequenceDiff.HunkType.EQUAL) {
+                    for (int k = 0; k < hunk.getLeftTo() - hunk.getLeftFrom(); k++) {
+                        assertEquals(a[hunk.getLeftFrom() + k], b[hunk.getRightFrom() + k]);
+                    }
+                } else {
+                    edits += (hunk.getLeftTo() - hunk.getLeftFrom()) + (hunk.getRightTo() - hunk.getRightFrom());
+                }
+                left = hunk.getLeftTo();
+                right = hunk.getRightTo();
+            }
+            assertEquals(a.length, left);
+            assertEquals(b.length, right);
+            assertEquals(a.length + b.length - 2 * longestCommonSubsequence(a, b), edits);
+            assertEquals(edits, SequenceDiff.distance(a, b, a.length + b.length));
+        }
+    }
+
+    @Test
+    public void removedLineIsReportedAsHunk() {
+        var left = TestUtils.getCompilationUnitFromResource("/alg_comparison/add_rm_lines/Calculator1.java");
+        var right = TestUtils.getCompilationUnitFromResource("/alg_comparison/add_rm_lines/Calculator2.java");
+        var leftBody = left.getType(0).getMethods().get(0).getBody().get().getStatements();
+        var rightBody = right.getType(0).getMethods().get(0).getBody().get().getStatements();
+
+        var hunks = SequenceDiff.align(leftBody, rightBody);
+
+        assertEquals(3, hunks.size());
+        assertEquals(SequenceDiff.HunkType.EQUAL, hunks.get(0).getType());
+        assertEquals(SequenceDiff.HunkType.DELETE, hunks.get(1).getType());
+        assertEquals(1, hunks.get(1).getLeftFrom());
+        assertEquals(SequenceDiff.HunkType.EQUAL, hunks.get(2).getType());
+    }
+
+    private static int longestCommonSubsequence(long[] a, long[] b) {
+        int[][] lcs = new int[a.length + 1][b.length + 1];
+        for (int i = 1; i <= a.length; i++) {
+            for (int j = 1; j <= b.length; j++) {
+                lcs[i][j] = a[i - 1] == b[j - 1] ? lcs[i - 1][j - 1] + 1 : Math.max(lcs[i - 1][j], lcs[i][j - 1]);
+            }
+        }
+        return lcs[a.length][b.length];
+    }
+
+    private static long[] randomSequence(Random random, int length) {
+        var sequence = new long[length];
+        for (int i = 0; i < length; i++) {
+            sequence[i] = random.nextInt(4);
+        }
+        return sequence;
+    }
+
+}
@@ -0,0 +1,177 @@
+package com.kerellka;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.kerellka.core.ComparisonOptions;
+import com.kerellka.core.ComparisonResult;
+import com.kerellka.core.PlagiarismChecker;
+import com.kerellka.core.SimilarityEngine;
+import com.kerellka.core.SimilarityEngines;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SimilarityEngineTests {
+
+    @Test
+    public void registryFindsBundledEngines() {
+        assertEquals(List.of("arena", "fingerprint", "histogram", "methods", "tiling", "tree-edit-distance", "visitor"), SimilarityEngines.names());
+        assertThrows(IllegalArgumentException.class, () -> SimilarityEngines.get("unknown"));
+    }
+
+    @Test
+    public void preparedUnitsScoreLikeDirectCalls() {
+        var left = TestUtils.getCompilationUnitFromResource("/alg_comparison/add_rm_lines/Calculator1.java");
+        var right = TestUtils.getCompilationUnitFromResource("/alg_comparison/add_rm_lines/Calculator2.java");
+
+        assertEquals(PlagiarismChecker.countPlagiarismPercentage(left, right),
+                score(SimilarityEngines.get("visitor"), left, right));
+        assertEquals(PlagiarismChecker.countPlagiarismPercentageByTiling(left, right),
+                score(SimilarityEngines.get("tiling"), left, right));
+        assertEquals(PlagiarismChecker.countPlagiarismPercentageByTreeEditDistance(left, right),
+                score(SimilarityEngines.get("tree-edit-distance"), left, right));
+    }
+
+    @Test
+    public void upperBoundsAreNeverBelowScores() {
+        var units = fixtures();
+        for (var name : SimilarityEngines.names()) {
+            var engine = SimilarityEngines.get(name);
+            for (var left : units.values()) {
+                for (var right : units.values()) {
+                    assertBoundHolds(engine, left, right);
+                }
+            }
+        }
+    }
+
+    // small units built from one pool of parameters and statements, so pairs share some of them but not all
+    @Test
+    public void upperBoundsHoldOnRandomUnits() {
+        var random = new Random(7);
+        var units = new ArrayList<CompilationUnit>();
+        units.add(StaticJavaParser.parse("class A { void f() { a(); } int g(int p, String q) { x(1); y(2); return 1; } }"));
+        units.add(StaticJavaParser.parse("class A { void f() { b(); } void g(int p) { x(\"s\"); y(2); } }"));
+        for (int i = 0; i < 30; i++) {
+            units.add(randomUnit(random));
+        }
+        for (var name : SimilarityEngines.names()) {
+            var engine = SimilarityEngines.get(name);
+            for (var left : units) {
+                for (var right : units) {
+                    assertBoundHolds(engine, left, right);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void bothWaysMatchesTheReverseComparison() {
+        var units = fixtures();
+        for (var name : SimilarityEngines.names()) {
+            for (var left : units.values()) {
+                for (var right : units.values()) {
+                    assertReverseCoverage(SimilarityEngines.get(name), left, right);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void bestMatchesNeedsACount() {
+        var units = fixtures();
+        var left = units.remove("renaming/Calculator1");
+        assertThrows(IllegalArgumentException.class, () -> PlagiarismChecker.bestMatches(left, units, 0, ComparisonOptions.defaults()));
+    }
+
+    @Test
+    public void bestMatchesAgreeWithComparingAll() {
+        var units = fixtures();
+        var left = units.remove("renaming/Calculator1");
+        for (var name : SimilarityEngines.names()) {
+            var engine = SimilarityEngines.get(name);
+            var all = PlagiarismChecker.compareAll(engine, left, units, ComparisonOptions.defaults());
+            var expected = all.values().stream()
+                    .map(ComparisonResult::getPercentage)
+                    .sorted(Comparator.reverseOrder())
+                    .limit(3)
+                    .collect(Collectors.toList());
+
+            var best = PlagiarismChecker.bestMatches(engine, left, units, 3, ComparisonOptions.defaults());
+
+            assertEquals(expected, best.getMatches().values().stream().map(ComparisonResult::getPercentage).collect(Collectors.toList()), name);
+            best.getMatches().forEach((key, result) -> assertEquals(all.get(key).getPercentage(), result.getPercentage(), name));
+            assertEquals(units.size(), best.getCandidateCount());
+        }
+        var best = PlagiarismChecker.bestMatches(SimilarityEngines.get("tiling"), left, units, 1, ComparisonOptions.defaults());
+        assertEquals(100, best.getMatches().values().iterator().next().getPercentage());
+        assertTrue(best.getScoredCount() < units.size() / 2, "scored " + best.getScoredCount());
+    }
+
+    private static <P> void assertBoundHolds(SimilarityEngine<P> engine, CompilationUnit left, CompilationUnit right) {
+        var preparedLeft = engine.prepare(left);
+        var preparedRight = engine.prepare(right);
+        var score = engine.score(preparedLeft, preparedRight, ComparisonOptions.defaults()).getPercentage();
+        assertTrue(engine.upperBound(preparedLeft, preparedRight) >= score, engine.getName() + ": " + left + "\n" + right);
+    }
+
+    private static <P> void assertReverseCoverage(SimilarityEngine<P> engine, CompilationUnit left, CompilationUnit right) {
+        var preparedLeft = engine.prepare(left);
+        var preparedRight = engine.prepare(right);
+        var reverse = engine.score(preparedRight, preparedLeft, ComparisonOptions.defaults()).getPercentage();
+        if (engine.isRightCoverageExact()) {
+            assertEquals(reverse, engine.score(preparedLeft, preparedRight, ComparisonOptions.defaults()).getRightCoverage(), engine.getName());
+        }
+        assertEquals(reverse, PlagiarismChecker.scoreBothWays(engine, preparedLeft, preparedRight, ComparisonOptions.defaults()).getRightCoverage(),
+                engine.getName());
+    }
+
+    private static CompilationUnit randomUnit(Random random) {
+        var parameters = List.of("int p", "String q", "double r", "int[] s");
+        var statements = List.of("a(1);", "b(p, 2);", "c(\"t\");", "x = y + 1;", "if (p > 0) { d(); }", "return;",
+                "for (int i = 0; i < 3; i++) { e(i); }", "f(g(1), 2);", "int k = 3;", "h(k * 2 + p);");
+        var source = new StringBuilder("class U {");
+        for (int m = 0; m < 1 + random.nextInt(3); m++) {
+            source.append(" void m").append(m).append("(");
+            var count = random.nextInt(3);
+            for (int i = 0; i < count; i++) {
+                source.append(i == 0 ? "" : ", ").append(parameters.get(random.nextInt(parameters.size()))).append(i);
+            }
+            source.append(") {");
+            for (int i = 0; i < random.nextInt(5); i++) {
+                source.append(' ').append(statements.get(random.nextInt(statements.size())));
+            }
+            source.append(" }");
+        }
+        return StaticJavaParser.parse(source.append(" }").toString());
+    }
+
+    private static Map<String, CompilationUnit> fixtures() {
+        var units = new TreeMap<String, CompilationUnit>();
+        for (var name : List.of("add_rm_lines/Calculator1", "add_rm_lines/Calculator2", "add_rm_lines/Printer1", "add_rm_lines/Printer2",
+                "dependency_graph_attack/Tmp1", "extract_constant/Const1", "extract_method/Tmp2", "extract_param/Field1",
+                "for_while/ForWhile1", "for_while/ForWhile2", "log_expr_swap/Main1", "moving/Calculator2",
+                "renaming/Calculator1", "renaming/Calculator2")) {
+            units.put(name, TestUtils.getCompilationUnitFromResource("/alg_comparison/" + name + ".java"));
+        }
+        return units;
+    }
+
+    private static <P> long score(SimilarityEngine<P> engine, CompilationUnit left, CompilationUnit right) {
+        var preparedLeft = engine.prepare(left);
+        // the prepared form is reusable
+        engine.score(preparedLeft, engine.prepare(left), ComparisonOptions.defaults());
+        return engine.score(preparedLeft, engine.prepare(right), ComparisonOptions.defaults()).getPercentage();
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.kerellka;
+
+import com.github.javaparser.StaticJavaParser;
+import com.kerellka.core.ComparisonOptions;
+import com.kerellka.core.PlagiarismEqualsVisitor;
+import com.kerellka.core.StructuralHashes;
+import com.kerellka.core.Traversal;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StructuralHashesTests {
+
+    @Test
+    public void renamedIdentifiersHashEqual() {
+        var left = TestUtils.getCompilationUnitFromResource("/alg_comparison/renaming/Calculator1.java");
+        var right = TestUtils.getCompilationUnitFromResource("/alg_comparison/renaming/Calculator2.java");
+
+        assertEquals(new StructuralHashes(left).hash(0), new StructuralHashes(right).hash(0));
+        assertTrue(PlagiarismEqualsVisitor.equals(left, right));
+    }
+
+    @Test
+    public void commutativeOperandsHashEqual() {
+        var left = StaticJavaParser.parseExpression("a * (b + 1)");
+        var right = StaticJavaParser.parseExpression("(1 + c) * d");
+        var nonCommutative = StaticJavaParser.parseExpression("(1 - c) * d");
+
+        assertEquals(new StructuralHashes(left).hash(0), new StructuralHashes(right).hash(0));
+        assertNotEquals(new StructuralHashes(left).shape(0), new StructuralHashes(nonCommutative).shape(0));
+        assertFalse(PlagiarismEqualsVisitor.equals(left, nonCommutative));
+    }
+
+    @Test
+    public void commutativeChainsHashAsOperandMultisets() {
+        var left = StaticJavaParser.parseExpression("x * 2 + y + z * 3");
+        var right = StaticJavaParser.parseExpression("z * 3 + x * 2 + y");
+        var grouped = StaticJavaParser.parseExpression("x * 2 + (y + z * 3)");
+
+        assertEquals(new StructuralHashes(left).hash(0), new StructuralHashes(right).hash(0));
+        assertTrue(PlagiarismEqualsVisitor.equals(left, right));
+        // parentheses end the chain
+        assertNotEquals(new StructuralHashes(left).hash(0), new StructuralHashes(grouped).hash(0));
+        assertFalse(PlagiarismEqualsVisitor.equals(left, grouped));
+    }
+
+    @Test
+    public void chainOperandsArePairedByMatching() {
+        // f(1) equals both right operands, so taking the first one it equals leaves f(1, 2) without a twin
+        var left = StaticJavaParser.parseStatement("return f(1) + f(1, 2);");
+        var right = StaticJavaParser.parseStatement("return f(1, 2, 3) + f(1, 3);");
+
+        for (var traversal : Traversal.values()) {
+            var options = ComparisonOptions.defaults().withTraversal(traversal);
+            assertEquals(100, PlagiarismEqualsVisitor.countPlagiarismPercentage(left, right, options), traversal.name());
+        }
+        assertTrue(PlagiarismEqualsVisitor.equals(left, right));
+    }
+
+    @Test
+    public void longChainsCompareInAnyOrder() {
+        var operands = IntStream.range(0, 500).mapToObj(i -> "f(" + i + ")").collect(Collectors.toList());
+        var left = StaticJavaParser.parseExpression(String.join(" && ", operands));
+        Collections.reverse(operands);
+        var right = StaticJavaParser.parseExpression(String.join(" && ", operands));
+        operands.set(0, "f(-1)");
+        var changed = StaticJavaParser.parseExpression(String.join(" && ", operands));
+
+        for (var traversal : Traversal.values()) {
+            var options = ComparisonOptions.defaults().withTraversal(traversal);
+            assertEquals(100, PlagiarismEqualsVisitor.countPlagiarismPercentage(left, right, options));
+            var result = PlagiarismEqualsVisitor.compare(left, changed, options);
+            assertEquals(99, result.getPercentage());
+            assertTrue(result.getVisitedNodes() < 10_000, traversal + ": " + result.getVisitedNodes());
+        }
+    }
+
+    @Test
+    public void chainOperandsAreOnlyComparedWithinTheirShape() {
+        // the repeated argument keeps every pair from being identical, and the constant gives each operand a shape of its own
+        var operands = IntStream.range(0, 200).mapToObj(i -> "f(0, 0) == " + i).collect(Collectors.toList());
+        var left = StaticJavaParser.parseExpression(String.join(" && ", operands));
+        Collections.reverse(operands);
+        operands.replaceAll(operand -> operand.replace("f(0, 0)", "f(0)"));
+        var right = StaticJavaParser.parseExpression(String.join(" && ", operands));
+
+        for (var traversal : Traversal.values()) {
+            var options = ComparisonOptions.defaults().withTraversal(traversal);
+            var result = PlagiarismEqualsVisitor.compare(left, right, options);
+            assertEquals(100, result.getPercentage());
+            assertTrue(result.getVisitedNodes() < 10_000, traversal + ": " + result.getVisitedNodes());
+        }
+    }
+
+}
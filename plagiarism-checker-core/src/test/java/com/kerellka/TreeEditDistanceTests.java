@@ -0,0 +1,39 @@
+package com.kerellka;
+
+import com.github.javaparser.StaticJavaParser;
+import com.kerellka.core.PlagiarismChecker;
+import com.kerellka.core.TreeEditDistance;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TreeEditDistanceTests {
+
+    @Test
+    public void unitCostEdits() {
+        var sum = StaticJavaParser.parseExpression("a + b");
+
+        assertEquals(0, TreeEditDistance.distance(sum, StaticJavaParser.parseExpression("x + y"), 100));
+        assertEquals(1, TreeEditDistance.distance(sum, StaticJavaParser.parseExpression("a - b"), 100));
+        assertEquals(3, TreeEditDistance.distance(StaticJavaParser.parseExpression("(a + b) * c"), sum, 100));
+        assertEquals(3, TreeEditDistance.distance(sum, StaticJavaParser.parseExpression("(a + b) * c"), 100));
+    }
+
+    @Test
+    public void decompositionBoundsTheExactDistance() {
+        var left = TestUtils.getCompilationUnitFromResource("/alg_comparison/add_rm_lines/Calculator1.java");
+        var right = TestUtils.getCompilationUnitFromResource("/alg_comparison/add_rm_lines/Calculator2.java");
+        var renamed = TestUtils.getCompilationUnitFromResource("/alg_comparison/renaming/Calculator2.java");
+
+        var exact = TreeEditDistance.distance(left, right, TreeEditDistance.DEFAULT_MAX_NODES);
+        var decomposed = TreeEditDistance.distance(left, right, 10);
+
+        assertTrue(exact > 0);
+        assertTrue(decomposed >= exact);
+        assertEquals(0, TreeEditDistance.distance(
+                TestUtils.getCompilationUnitFromResource("/alg_comparison/renaming/Calculator1.java"), renamed, 10));
+        assertEquals(100, PlagiarismChecker.countPlagiarismPercentageByTreeEditDistance(left, left));
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.kerellka;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.kerellka.core.ComparisonOptions;
+import com.kerellka.core.PlagiarismChecker;
+import com.kerellka.core.Winnowing;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class WinnowingTests {
+
+    @Test
+    public void renamedIdentifiersKeepFingerprints() {
+        var left = TestUtils.getCompilationUnitFromResource("/alg_comparison/renaming/Calculator1.java");
+        var right = TestUtils.getCompilationUnitFromResource("/alg_comparison/renaming/Calculator2.java");
+
+        assertEquals(1.0, Winnowing.containment(Winnowing.fingerprint(left), Winnowing.fingerprint(right)));
+    }
+
+    @Test
+    public void prefilterSkipsUnrelatedUnits() {
+        var left = TestUtils.getCompilationUnitFromResource("/alg_comparison/add_rm_lines/Printer1.java");
+        Map<String, CompilationUnit> others = Map.of(
+                "printer", TestUtils.getCompilationUnitFromResource("/alg_comparison/add_rm_lines/Printer2.java"),
+                "const", TestUtils.getCompilationUnitFromResource("/alg_comparison/extract_constant/Const2.java")
+        );
+
+        var everything = PlagiarismChecker.compareAll(left, others, ComparisonOptions.defaults());
+        var filtered = PlagiarismChecker.compareAll(left, others, ComparisonOptions.defaults().withPrefilterThreshold(0.5));
+
+        assertEquals(2, everything.size());
+        assertEquals(everything.get("printer").getPercentage(), filtered.get("printer").getPercentage());
+        assertFalse(filtered.containsKey("const"));
+    }
+
+}
@@ -2,9 +2,18 @@ package org.suai;
 
 import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.ast.CompilationUnit;
-import com.github.javaparser.ast.Node;
 import com.github.javaparser.utils.Pair;
+import com.kerellka.core.Canonicalizer;
+import com.kerellka.core.ComparisonCascade;
+import com.kerellka.core.ComparisonOptions;
+import com.kerellka.core.ComparisonResult;
+import com.kerellka.core.KindHistogram;
+import com.kerellka.core.LshIndex;
+import com.kerellka.core.MethodIndex;
+import com.kerellka.core.MinHash;
 import com.kerellka.core.PlagiarismChecker;
+import com.kerellka.core.SimilarityEngine;
+import com.kerellka.core.SimilarityEngines;
 import com.kerellka.persistence.ASTRepository;
 import com.kerellka.utils.IOTreeUtils;
 import com.kerellka.persistence.JDBC;
@@ -13,8 +22,11 @@ import picocli.CommandLine;
 
 import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.*;
+import java.util.function.ToDoubleBiFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @CommandLine.Command(name = "PlagChecker")
 public class PlagiarismCheckerCLI {
@@ -28,12 +40,15 @@ public class PlagiarismCheckerCLI {
             var dbConnection = JDBC.getConnection(dbUrl);
             var astRepository = new ASTRepository(dbConnection);
             astRepository.initTable();
+            var sourceCode = SourceCodeUtils.concatFilesFromProject(pathToProjectRoot);
+            var ast = StaticJavaParser.parse(sourceCode);
             astRepository.insertData(
                     studentName,
                     labNumber,
-                    IOTreeUtils.writeProjectToJSONAsAST(pathToProjectRoot).getBytes(StandardCharsets.UTF_8),
-                    SourceCodeUtils.concatFilesFromProject(pathToProjectRoot).getBytes(StandardCharsets.UTF_8)
+                    IOTreeUtils.writeToJSON(ast).getBytes(StandardCharsets.UTF_8),
+                    sourceCode.getBytes(StandardCharsets.UTF_8)
             );
+            saveDerivedData(astRepository, studentName, labNumber, ast);
             System.out.println("ast inserted successfully");
         } catch (SQLException e) {
             e.printStackTrace();
@@ -50,12 +65,15 @@ public class PlagiarismCheckerCLI {
             var dbConnection = JDBC.getConnection(dbUrl);
             var astRepository = new ASTRepository(dbConnection);
             astRepository.initTable();
+            var sourceCode = SourceCodeUtils.concatFiles(sourceCodePaths);
+            var ast = StaticJavaParser.parse(sourceCode);
             astRepository.insertData(
                     studentName,
                     labNumber,
-                    IOTreeUtils.writeToJSON(sourceCodePaths).getBytes(StandardCharsets.UTF_8),
-                    SourceCodeUtils.concatFiles(sourceCodePaths).getBytes(StandardCharsets.UTF_8)
+                    IOTreeUtils.writeToJSON(ast).getBytes(StandardCharsets.UTF_8),
+                    sourceCode.getBytes(StandardCharsets.UTF_8)
             );
+            saveDerivedData(astRepository, studentName, labNumber, ast);
             System.out.println("ast inserted successfully");
         } catch (SQLException e) {
             e.printStackTrace();
@@ -72,18 +90,68 @@ public class PlagiarismCheckerCLI {
             var dbConnection = JDBC.getConnection(dbUrl);
             var astRepository = new ASTRepository(dbConnection);
             astRepository.initTable();
+            var sourceCode = SourceCodeUtils.concatFiles(sourceCodePaths);
+            var ast = StaticJavaParser.parse(sourceCode);
             astRepository.updateData(
                     studentName,
                     labNumber,
-                    IOTreeUtils.writeToJSON(sourceCodePaths).getBytes(StandardCharsets.UTF_8),
-                    SourceCodeUtils.concatFiles(sourceCodePaths).getBytes(StandardCharsets.UTF_8)
+                    IOTreeUtils.writeToJSON(ast).getBytes(StandardCharsets.UTF_8),
+                    sourceCode.getBytes(StandardCharsets.UTF_8)
             );
+            saveDerivedData(astRepository, studentName, labNumber, ast);
             System.out.println("ast updated successfully");
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    // everything comparisons read besides the AST itself: the MinHash signature, the kind histogram, the method fingerprints
+    // and the canonical form
+    private static void saveDerivedData(ASTRepository astRepository, String studentName, int labNumber, CompilationUnit ast) throws SQLException {
+        astRepository.saveMinHash(studentName, labNumber, MinHash.toBytes(MinHash.signature(ast)));
+        var histogram = KindHistogram.of(ast);
+        astRepository.saveHistogram(studentName, labNumber, KindHistogram.toBytes(histogram));
+        astRepository.saveMethodFingerprints(studentName, labNumber, MethodIndex.toBytes(MethodIndex.fingerprints(ast)));
+        astRepository.saveCanonicalAst(studentName, labNumber, IOTreeUtils.writeToJSON(Canonicalizer.canonicalize(ast)).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // canonical forms of the students' ASTs as stored at insert time; rows stored before they existed get theirs now,
+    // from the ASTs read so far or fetched for the purpose
+    private static Map<String, CompilationUnit> canonicalAsts(ASTRepository astRepository, int labNumber, Collection<String> students,
+                                                              Map<String, CompilationUnit> asts) throws SQLException {
+        Map<String, CompilationUnit> canonical = new TreeMap<>();
+        for (var student : students) {
+            var ast = astRepository.findCanonicalAst(student, labNumber);
+            if (ast == null) {
+                var canonicalAst = Canonicalizer.canonicalize(storedAst(astRepository, labNumber, asts, student));
+                astRepository.saveCanonicalAst(student, labNumber, IOTreeUtils.writeToJSON(canonicalAst).getBytes(StandardCharsets.UTF_8));
+                canonical.put(student, canonicalAst);
+            } else {
+                canonical.put(student, (CompilationUnit) IOTreeUtils.readFromJSON(new String(ast, StandardCharsets.UTF_8)));
+            }
+        }
+        return canonical;
+    }
+
+    private static Map<String, CompilationUnit> storedAsts(ASTRepository astRepository, int labNumber, Collection<String> students,
+                                                           Map<String, CompilationUnit> asts) throws SQLException {
+        Map<String, CompilationUnit> stored = new TreeMap<>();
+        for (var student : students) {
+            stored.put(student, storedAst(astRepository, labNumber, asts, student));
+        }
+        return stored;
+    }
+
+    // the student's AST, fetched and read from its JSON the first time it is asked for
+    private static CompilationUnit storedAst(ASTRepository astRepository, int labNumber, Map<String, CompilationUnit> asts, String student) throws SQLException {
+        var ast = asts.get(student);
+        if (ast == null) {
+            ast = (CompilationUnit) IOTreeUtils.readFromJSON(new String(astRepository.findAst(student, labNumber), StandardCharsets.UTF_8));
+            asts.put(student, ast);
+        }
+        return ast;
+    }
+
     @CommandLine.Command(name = "deleteInDb")
     void deleteFromDb(@CommandLine.Option(names = {"--database-url", "-dburl"}) String dbUrl,
                       @CommandLine.Option(names = "--student-name") String studentName,
@@ -103,32 +171,198 @@ public class PlagiarismCheckerCLI {
     void compareToOther(@CommandLine.Option(names = {"--database-url", "-dburl"}) String dbUrl,
                         @CommandLine.Option(names = "--student-name") String studentName,
                         @CommandLine.Option(names = "--lab-number") int labNumber,
+                        @CommandLine.Option(names = "--visit-budget") Long visitBudget,
+                        @CommandLine.Option(names = "--time-limit-ms") Long timeLimitMs,
+                        @CommandLine.Option(names = "--prefilter-threshold", defaultValue = "0") double prefilterThreshold,
+                        @CommandLine.Option(names = "--engine", defaultValue = SimilarityEngines.DEFAULT_ENGINE) String engineName,
+                        @CommandLine.Option(names = "--canonical") boolean canonical,
+                        @CommandLine.Option(names = "--top", defaultValue = "1") int top,
                         @CommandLine.Parameters(arity = "1..*", paramLabel = "<sourceCodePaths>") String[] sourceCodePaths) {
 
+        var engine = similarityEngine(engineName);
+        if (engine == null) {
+            return;
+        }
         try {
             var dbConnection = JDBC.getConnection(dbUrl);
             var astRepository = new ASTRepository(dbConnection);
+            var options = ComparisonOptions.defaults().withPrefilterThreshold(prefilterThreshold);
+            if (visitBudget != null) {
+                options.withNodeVisitBudget(visitBudget);
+            }
+            if (timeLimitMs != null) {
+                options.withTimeLimit(Duration.ofMillis(timeLimitMs));
+            }
             var currentAst = StaticJavaParser.parse(SourceCodeUtils.concatFiles(sourceCodePaths));
-            Map<String, Node> dbAstsToCompare = astRepository.findAllAstForLabAndStudent(studentName, labNumber)
+            Map<String, CompilationUnit> dbAstsToCompare = astRepository.findAllAstForLabAndStudent(studentName, labNumber)
                     .entrySet()
                     .stream()
-                    .map(entry -> new Pair<>(entry.getKey(), IOTreeUtils.readFromJSON(new String(entry.getValue(), StandardCharsets.UTF_8))))
+                    .map(entry -> new Pair<>(entry.getKey(), (CompilationUnit) IOTreeUtils.readFromJSON(new String(entry.getValue(), StandardCharsets.UTF_8))))
                     .collect(Collectors.toMap(pair -> pair.a, pair -> pair.b));
-            var plagResults = new HashMap<String, Long>();
             if (dbAstsToCompare.isEmpty()) {
                 System.out.println("AST to compare not found");
                 return;
             }
-            dbAstsToCompare.forEach((key, value) ->
-                    plagResults.put(key, PlagiarismChecker.countPlagiarismPercentage(currentAst, (CompilationUnit) value))
-            );
-            var maxPlagEntry = plagResults.entrySet().stream().max(Comparator.comparingLong(Map.Entry::getValue)).get();
-            System.out.println("Plagiarism percentage is " + maxPlagEntry.getValue());
-            System.out.println("With student: " + maxPlagEntry.getKey());
+            astRepository.initTable();
+            if (canonical) {
+                currentAst = Canonicalizer.canonicalize(currentAst);
+                dbAstsToCompare = canonicalAsts(astRepository, labNumber, dbAstsToCompare.keySet(), dbAstsToCompare);
+            }
+            var bestMatches = PlagiarismChecker.bestMatches(engine, currentAst, dbAstsToCompare, top, options);
+            var plagResults = bestMatches.getMatches();
+            if (plagResults.isEmpty()) {
+                System.out.println("No AST passed the fingerprint prefilter");
+                return;
+            }
+            for (var entry : plagResults.entrySet()) {
+                System.out.println("Plagiarism percentage is " + entry.getValue());
+                System.out.println("With student: " + entry.getKey());
+            }
+            System.out.println("Compared with " + bestMatches.getScoredCount() + " of " + bestMatches.getCandidateCount() + " submissions");
+            var methodIndex = new MethodIndex<String>();
+            astRepository.findAllMethodFingerprintsForLab(labNumber).forEach((student, methods) -> {
+                if (!student.equals(studentName)) {
+                    methodIndex.add(student, MethodIndex.fromBytes(methods));
+                }
+            });
+            methodIndex.sharedMethods(MethodIndex.fingerprints(currentAst)).forEach((student, methods) ->
+                    System.out.println("Methods shared with " + student + ": " + methods.stream()
+                            .map(pair -> pair.a + " as " + pair.b)
+                            .collect(Collectors.joining(", "))));
+            var truncated = plagResults.values().stream().filter(ComparisonResult::isTruncated).count();
+            if (truncated > 0) {
+                System.out.println("Comparisons stopped by the budget: " + truncated);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+    }
+
+    @CommandLine.Command(name = "compareLab")
+    void compareLab(@CommandLine.Option(names = {"--database-url", "-dburl"}) String dbUrl,
+                    @CommandLine.Option(names = "--lab-number") int labNumber,
+                    @CommandLine.Option(names = "--min-percentage", defaultValue = "0") long minPercentage,
+                    @CommandLine.Option(names = "--engine", defaultValue = SimilarityEngines.DEFAULT_ENGINE) String engineName,
+                    @CommandLine.Option(names = "--canonical") boolean canonical,
+                    @CommandLine.Option(names = "--min-histogram-similarity", defaultValue = "0") double minHistogramSimilarity,
+                    @CommandLine.Option(names = "--histogram-metric", defaultValue = "cosine") String histogramMetric,
+                    @CommandLine.Option(names = "--cascade") String cascadeStages) {
+        var engine = similarityEngine(engineName);
+        if (engine == null) {
+            return;
+        }
+        try {
+            var dbConnection = JDBC.getConnection(dbUrl);
+            var astRepository = new ASTRepository(dbConnection);
+            astRepository.initTable();
+            var similarity = histogramSimilarity(histogramMetric);
+            var cascade = cascadeStages == null ? null : ComparisonCascade.parse(cascadeStages);
+            var students = astRepository.findAllStudentLoginsForLab(labNumber);
+            // an AST blob is only fetched when one of its derived rows is missing or one of its pairs passes the triage
+            Map<String, CompilationUnit> asts = new HashMap<>();
+            var signatures = astRepository.findAllMinHashForLab(labNumber);
+            var storedHistograms = astRepository.findAllHistogramsForLab(labNumber);
+            var storedMethods = astRepository.findAllMethodFingerprintsForLab(labNumber);
+            var index = new LshIndex<String>();
+            var methodIndex = new MethodIndex<String>();
+            Map<String, double[]> histograms = new HashMap<>();
+            for (var student : students) {
+                var signature = signatures.get(student);
+                if (signature == null) {
+                    // rows stored before signatures existed get theirs now
+                    signature = MinHash.toBytes(MinHash.signature(storedAst(astRepository, labNumber, asts, student)));
+                    astRepository.saveMinHash(student, labNumber, signature);
+                }
+                index.add(student, MinHash.fromBytes(signature));
+                var histogram = storedHistograms.containsKey(student) ? KindHistogram.fromBytes(storedHistograms.get(student)) : null;
+                if (histogram == null || !KindHistogram.isCurrent(histogram)) {
+                    histogram = KindHistogram.of(storedAst(astRepository, labNumber, asts, student));
+                    astRepository.saveHistogram(student, labNumber, KindHistogram.toBytes(histogram));
+                }
+                histograms.put(student, histogram);
+                var methods = storedMethods.get(student);
+                if (methods == null) {
+                    methods = MethodIndex.toBytes(MethodIndex.fingerprints(storedAst(astRepository, labNumber, asts, student)));
+                    astRepository.saveMethodFingerprints(student, labNumber, methods);
+                }
+                methodIndex.add(student, MethodIndex.fromBytes(methods));
+            }
+
+            var candidatePairs = new ArrayList<>(index.candidatePairs());
+            // methods moved to another class or file are only found by their bodies, so sharing one makes a pair
+            // a candidate too; it is triaged and scored like any other
+            var knownPairs = new HashSet<>(candidatePairs);
+            var methodPairs = methodIndex.candidatePairs().stream()
+                    .filter(knownPairs::add)
+                    .collect(Collectors.toList());
+            candidatePairs.addAll(methodPairs);
+            System.out.println("Candidate pairs: " + candidatePairs.size() + " of " + (long) students.size() * (students.size() - 1) / 2
+                    + ", " + methodPairs.size() + " of them only through shared methods");
+            var triagedPairs = candidatePairs.stream()
+                    .filter(pair -> similarity.applyAsDouble(histograms.get(pair.a), histograms.get(pair.b)) >= minHistogramSimilarity)
+                    .collect(Collectors.toList());
+            if (minHistogramSimilarity > 0) {
+                System.out.println("Pairs past the histogram triage: " + triagedPairs.size());
+            }
+            var pairStudents = new TreeSet<String>();
+            for (var pair : triagedPairs) {
+                pairStudents.add(pair.a);
+                pairStudents.add(pair.b);
+            }
+            var units = canonical
+                    ? canonicalAsts(astRepository, labNumber, pairStudents, asts)
+                    : storedAsts(astRepository, labNumber, pairStudents, asts);
+            Stream<Pair<Pair<String, String>, Long>> scores;
+            if (cascade == null) {
+                scores = scorePairs(engine, units, triagedPairs);
+            } else {
+                var cascadeResult = cascade.run(units::get, triagedPairs, ComparisonOptions.defaults());
+                cascadeResult.getStageReports().forEach(System.out::println);
+                scores = cascadeResult.getResults().entrySet().stream()
+                        .map(entry -> new Pair<>(entry.getKey(), Math.max(entry.getValue().getLeftCoverage(), entry.getValue().getRightCoverage())));
+            }
+            scores.filter(result -> result.b >= minPercentage)
+                    .sorted(Comparator.comparing((Pair<Pair<String, String>, Long> result) -> result.b).reversed())
+                    .forEachOrdered(result -> System.out.println(result.a.a + " - " + result.a.b + ": " + result.b + "%"));
         } catch (SQLException e) {
             e.printStackTrace();
         }
+    }
+
+    // null, after listing the engines there are, for an unknown name
+    private static SimilarityEngine<?> similarityEngine(String name) {
+        try {
+            return SimilarityEngines.get(name);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return null;
+        }
+    }
+
+    private static ToDoubleBiFunction<double[], double[]> histogramSimilarity(String metric) {
+        switch (metric) {
+            case "cosine":
+                return KindHistogram::cosine;
+            case "manhattan":
+                return KindHistogram::manhattan;
+            default:
+                throw new IllegalArgumentException("Unknown histogram metric " + metric + ", available: [cosine, manhattan]");
+        }
+    }
 
+    // every submission is prepared once, however many candidate pairs it is part of, and each pair is scored
+    // both ways round
+    private static <P> Stream<Pair<Pair<String, String>, Long>> scorePairs(SimilarityEngine<P> engine,
+                                                                         Map<String, CompilationUnit> asts,
+                                                                         List<Pair<String, String>> pairs) {
+        var prepared = PlagiarismChecker.prepareAll(engine, asts);
+        var options = ComparisonOptions.defaults();
+        return pairs.parallelStream()
+                .map(pair -> {
+                    var result = PlagiarismChecker.scoreBothWays(engine, prepared.get(pair.a), prepared.get(pair.b), options);
+                    return new Pair<>(pair, Math.max(result.getLeftCoverage(), result.getRightCoverage()));
+                });
     }
 
     @CommandLine.Command(name = "getSourceCode")